@@ -0,0 +1,13 @@
+package com.example.clearsolutionstesttask.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ClearSolutionsTestTaskReactiveApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ClearSolutionsTestTaskReactiveApplication.class, args);
+    }
+
+}
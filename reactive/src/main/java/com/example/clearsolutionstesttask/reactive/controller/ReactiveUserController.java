@@ -0,0 +1,61 @@
+package com.example.clearsolutionstesttask.reactive.controller;
+
+import com.example.clearsolutionstesttask.reactive.dto.ContactsDto;
+import com.example.clearsolutionstesttask.reactive.dto.UserDto;
+import com.example.clearsolutionstesttask.reactive.dto.UserIdDto;
+import com.example.clearsolutionstesttask.reactive.service.ReactiveUserService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/v1/testTask/users")
+@RequiredArgsConstructor
+public class ReactiveUserController {
+    private final ReactiveUserService userService;
+
+    @PostMapping
+    public Mono<ResponseEntity<UserIdDto>> createUser(@Valid @RequestBody UserDto userDto) {
+        return userService.createUser(userDto).map(ResponseEntity::ok);
+    }
+
+    @PutMapping("/{userId}")
+    public Mono<ResponseEntity<Void>> updateUser(@PathVariable Long userId,
+                                                 @Valid @RequestBody UserDto userDto) {
+        return userService.updateUser(userId, userDto).then(Mono.just(ResponseEntity.ok().build()));
+    }
+
+    @PatchMapping("/{userId}")
+    public Mono<ResponseEntity<Void>> updateContactsInfo(@PathVariable Long userId,
+                                                         @RequestBody ContactsDto contacts) {
+        return userService.updateContactsInfo(userId, contacts).then(Mono.just(ResponseEntity.ok().build()));
+    }
+
+    @DeleteMapping("/{userId}")
+    public Mono<ResponseEntity<Void>> deleteUser(@PathVariable Long userId) {
+        return userService.deleteUser(userId).then(Mono.just(ResponseEntity.ok().build()));
+    }
+
+    @GetMapping("/{userId}")
+    public Mono<ResponseEntity<UserDto>> getUser(@PathVariable Long userId) {
+        return userService.findUser(userId).map(ResponseEntity::ok);
+    }
+
+    // a JSON array for application/json, one object per line for application/x-ndjson;
+    // either way rows are written as the client consumes them
+    @GetMapping(value = "/searchByBirthDateRange",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<UserDto> searchByBirthDateRange(
+            @RequestParam(name = "from") LocalDate from,
+            @RequestParam(name = "to") LocalDate to) {
+
+        return userService.searchByBirthDateRange(from, to);
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.example.clearsolutionstesttask.reactive.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ContactsDto {
+    private String phone;
+    private String address;
+}
@@ -0,0 +1,38 @@
+package com.example.clearsolutionstesttask.reactive.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class UserDto {
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long id;
+
+    @Email(regexp = ".+@.+\\..+", message = "Invalid email format")
+    @NotBlank(message = "Email can not be blank")
+    private String email;
+
+    @NotBlank(message = "First name can not be blank")
+    private String firstName;
+
+    @NotBlank(message = "Last name can not be blank")
+    private String lastName;
+
+    @NotNull(message = "Birth date can not be blank")
+    private LocalDate birthDate;
+
+    private String phone;
+    private String address;
+
+}
\ No newline at end of file
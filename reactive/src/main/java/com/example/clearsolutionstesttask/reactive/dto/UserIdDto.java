@@ -0,0 +1,12 @@
+package com.example.clearsolutionstesttask.reactive.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserIdDto {
+    private Long id;
+}
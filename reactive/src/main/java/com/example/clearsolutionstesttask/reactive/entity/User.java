@@ -0,0 +1,39 @@
+package com.example.clearsolutionstesttask.reactive.entity;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+@Table("users")
+public class User {
+    @Id
+    @Column("id")
+    private Long id;
+
+    @Column("first_name")
+    private String firstName;
+
+    @Column("last_name")
+    private String lastName;
+
+    @Column("email")
+    private String email;
+
+    @Column("birth_date")
+    private LocalDate birthDate;
+
+    @Column("address")
+    private String address;
+
+    @Column("phone")
+    private String phone;
+
+}
@@ -0,0 +1,33 @@
+package com.example.clearsolutionstesttask.reactive.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<?> handleBadRequestException(BadRequestException ex) {
+        return ExceptionBuilder.buildExceptionResponse(ex, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(NotFoundException.class)
+    public ResponseEntity<?> handleNotFoundException(NotFoundException ex) {
+        return ExceptionBuilder.buildExceptionResponse(ex, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<?> handleValidationException(WebExchangeBindException ex) {
+        return ExceptionBuilder.buildExceptionResponse(
+                new BadRequestException("Invalid request parameters"), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<?> handleInputException(ServerWebInputException ex) {
+        return ExceptionBuilder.buildExceptionResponse(
+                new BadRequestException(ex.getReason()), HttpStatus.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.clearsolutionstesttask.reactive.repository;
+
+import com.example.clearsolutionstesttask.reactive.entity.User;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+@Repository
+public interface ReactiveUserRepository extends R2dbcRepository<User, Long> {
+    @Modifying
+    @Query("update users set first_name = :firstName, last_name = :lastName, email = :email, " +
+            "birth_date = :birthDate, phone = :phone, address = :address, version = version + 1 where id = :id")
+    Mono<Integer> updateUser(@Param("id") Long id,
+                             @Param("firstName") String firstName,
+                             @Param("lastName") String lastName,
+                             @Param("email") String email,
+                             @Param("birthDate") LocalDate birthDate,
+                             @Param("phone") String phone,
+                             @Param("address") String address);
+
+    @Modifying
+    @Query("update users set phone = :phone, address = :address, version = version + 1 where id = :id")
+    Mono<Integer> updateContacts(@Param("id") Long id,
+                                 @Param("phone") String phone,
+                                 @Param("address") String address);
+
+    @Modifying
+    @Query("delete from users where id = :id")
+    Mono<Integer> deleteUserById(@Param("id") Long id);
+}
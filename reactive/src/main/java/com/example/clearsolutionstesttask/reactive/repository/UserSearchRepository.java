@@ -0,0 +1,44 @@
+package com.example.clearsolutionstesttask.reactive.repository;
+
+import com.example.clearsolutionstesttask.reactive.dto.UserDto;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+
+@Repository
+@RequiredArgsConstructor
+public class UserSearchRepository {
+    private static final String SEARCH_BY_BIRTH_DATE = "select id, email, first_name, last_name, birth_date, phone, address " +
+            "from users where birth_date between :from and :to order by birth_date, id";
+
+    private final DatabaseClient databaseClient;
+
+    @Value("${users.search.fetchSize}")
+    private Integer fetchSize;
+
+    // rows are pulled from a portal fetchSize at a time, so the client's demand drives the database reads
+    public Flux<UserDto> findAllByBirthDateBetween(LocalDate from, LocalDate to) {
+        return databaseClient.sql(SEARCH_BY_BIRTH_DATE)
+                .bind("from", from)
+                .bind("to", to)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(UserSearchRepository::toDto)
+                .all();
+    }
+
+    private static UserDto toDto(Readable row) {
+        return new UserDto(
+                row.get("id", Long.class),
+                row.get("email", String.class),
+                row.get("first_name", String.class),
+                row.get("last_name", String.class),
+                row.get("birth_date", LocalDate.class),
+                row.get("phone", String.class),
+                row.get("address", String.class));
+    }
+}
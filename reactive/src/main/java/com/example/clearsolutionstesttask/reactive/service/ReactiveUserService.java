@@ -0,0 +1,18 @@
+package com.example.clearsolutionstesttask.reactive.service;
+
+import com.example.clearsolutionstesttask.reactive.dto.ContactsDto;
+import com.example.clearsolutionstesttask.reactive.dto.UserDto;
+import com.example.clearsolutionstesttask.reactive.dto.UserIdDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+public interface ReactiveUserService {
+    Mono<UserIdDto> createUser(UserDto userDto);
+    Mono<Void> updateContactsInfo(Long userId, ContactsDto contacts);
+    Mono<Void> updateUser(Long userId, UserDto userDto);
+    Mono<Void> deleteUser(Long userId);
+    Mono<UserDto> findUser(Long userId);
+    Flux<UserDto> searchByBirthDateRange(LocalDate from, LocalDate to);
+}
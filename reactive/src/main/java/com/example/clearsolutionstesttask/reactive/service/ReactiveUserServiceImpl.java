@@ -0,0 +1,103 @@
+package com.example.clearsolutionstesttask.reactive.service;
+
+import com.example.clearsolutionstesttask.reactive.dto.ContactsDto;
+import com.example.clearsolutionstesttask.reactive.dto.UserDto;
+import com.example.clearsolutionstesttask.reactive.dto.UserIdDto;
+import com.example.clearsolutionstesttask.reactive.entity.User;
+import com.example.clearsolutionstesttask.reactive.exception.BadRequestException;
+import com.example.clearsolutionstesttask.reactive.exception.ConstraintViolationTranslator;
+import com.example.clearsolutionstesttask.reactive.exception.NotFoundException;
+import com.example.clearsolutionstesttask.reactive.repository.ReactiveUserRepository;
+import com.example.clearsolutionstesttask.reactive.repository.UserSearchRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+@Service
+@RequiredArgsConstructor
+public class ReactiveUserServiceImpl implements ReactiveUserService {
+    private final ReactiveUserRepository userRepository;
+    private final UserSearchRepository userSearchRepository;
+
+    @Value("${users.minAge}")
+    private Integer minAge;
+
+    public Mono<UserIdDto> createUser(UserDto userDto) {
+        return Mono.defer(() -> {
+                    validateBirthDate(userDto.getBirthDate());
+                    User user = User.builder()
+                            .firstName(userDto.getFirstName())
+                            .lastName(userDto.getLastName())
+                            .email(userDto.getEmail())
+                            .birthDate(userDto.getBirthDate())
+                            .phone(userDto.getPhone())
+                            .address(userDto.getAddress())
+                            .build();
+                    return userRepository.save(user);
+                })
+                .map(user -> new UserIdDto(user.getId()))
+                .onErrorMap(DataIntegrityViolationException.class, ConstraintViolationTranslator::translate);
+    }
+
+    public Mono<Void> updateContactsInfo(Long userId, ContactsDto contacts) {
+        return userRepository.updateContacts(userId, contacts.getPhone(), contacts.getAddress())
+                .onErrorMap(DataIntegrityViolationException.class, ConstraintViolationTranslator::translate)
+                .flatMap(this::requireUpdated);
+    }
+
+    public Mono<Void> updateUser(Long userId, UserDto userDto) {
+        return Mono.defer(() -> {
+                    validateBirthDate(userDto.getBirthDate());
+                    return userRepository.updateUser(userId, userDto.getFirstName(), userDto.getLastName(),
+                            userDto.getEmail(), userDto.getBirthDate(), userDto.getPhone(), userDto.getAddress());
+                })
+                .onErrorMap(DataIntegrityViolationException.class, ConstraintViolationTranslator::translate)
+                .flatMap(this::requireUpdated);
+    }
+
+    public Mono<Void> deleteUser(Long userId) {
+        return userRepository.deleteUserById(userId)
+                .flatMap(this::requireUpdated);
+    }
+
+    public Mono<UserDto> findUser(Long userId) {
+        return userRepository.findById(userId)
+                .map(user -> new UserDto(user.getId(), user.getEmail(), user.getFirstName(), user.getLastName(),
+                        user.getBirthDate(), user.getPhone(), user.getAddress()))
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("User not found")));
+    }
+
+    public Flux<UserDto> searchByBirthDateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to))
+            return Flux.error(new BadRequestException("`From` must be less than `To`"));
+
+        return userSearchRepository.findAllByBirthDateBetween(from, to);
+    }
+
+    private Mono<Void> requireUpdated(Integer rows) {
+        return rows == 0 ? Mono.error(new NotFoundException("User not found")) : Mono.empty();
+    }
+
+    private void validateBirthDate(LocalDate birthDate) {
+
+        if (birthDate.isAfter(LocalDate.now())) {
+            throw new BadRequestException("Birthday can not be after now");
+        }
+        long age = birthDate.until(LocalDate.now(), ChronoUnit.YEARS);
+        if (age < minAge) {
+            throw new BadRequestException("You must be over 18 years old");
+        }
+
+    }
+
+    //for testing
+    public void setMinAge(Integer minAge) {
+        this.minAge = minAge;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.clearsolutionstesttask.reactive.controller;
+
+import com.example.clearsolutionstesttask.reactive.dto.UserDto;
+import com.example.clearsolutionstesttask.reactive.dto.UserIdDto;
+import com.example.clearsolutionstesttask.reactive.service.ReactiveUserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveUserController.class)
+class ReactiveUserControllerTest {
+    private static UserDto userDto;
+    @Autowired
+    private WebTestClient client;
+    @MockBean
+    private ReactiveUserService service;
+
+    @BeforeEach
+    void setUp() {
+        userDto = UserDto.builder()
+                .firstName("Andrii")
+                .lastName("Snovyda")
+                .email("andrii@gmail.com")
+                .birthDate(LocalDate.of(2005, 11, 6))
+                .phone("+380971694636")
+                .build();
+    }
+
+    @Test
+    public void shouldCreateUser() {
+        when(service.createUser(Mockito.any())).thenReturn(Mono.just(new UserIdDto(1L)));
+
+        client.post().uri("/api/v1/testTask/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(userDto)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.id").isEqualTo(1);
+    }
+
+    @Test
+    public void shouldThrowWhenDtoIsNotValid() {
+        userDto.setEmail(null);
+
+        client.post().uri("/api/v1/testTask/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(userDto)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void shouldStreamSearchResultsAsNdjson() {
+        when(service.searchByBirthDateRange(Mockito.any(), Mockito.any())).thenReturn(Flux.just(userDto, userDto));
+
+        client.get().uri("/api/v1/testTask/users/searchByBirthDateRange?from=2004-11-06&to=2006-11-06")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(UserDto.class).hasSize(2);
+    }
+}
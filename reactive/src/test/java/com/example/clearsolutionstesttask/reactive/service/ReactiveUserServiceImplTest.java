@@ -0,0 +1,104 @@
+package com.example.clearsolutionstesttask.reactive.service;
+
+import com.example.clearsolutionstesttask.reactive.dto.ContactsDto;
+import com.example.clearsolutionstesttask.reactive.dto.UserDto;
+import com.example.clearsolutionstesttask.reactive.entity.User;
+import com.example.clearsolutionstesttask.reactive.exception.BadRequestException;
+import com.example.clearsolutionstesttask.reactive.exception.NotFoundException;
+import com.example.clearsolutionstesttask.reactive.repository.ReactiveUserRepository;
+import com.example.clearsolutionstesttask.reactive.repository.UserSearchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveUserServiceImplTest {
+    private static UserDto userDto;
+    @Mock
+    private ReactiveUserRepository userRepository;
+    @Mock
+    private UserSearchRepository userSearchRepository;
+    @InjectMocks
+    private ReactiveUserServiceImpl userService;
+
+    @BeforeEach
+    void setUp() {
+        userService.setMinAge(18);
+        userDto = UserDto.builder()
+                .firstName("Andrii")
+                .lastName("Snovyda")
+                .email("andrii@gmail.com")
+                .birthDate(LocalDate.of(2005, 11, 6))
+                .phone("+380971694636")
+                .build();
+    }
+
+    @Test
+    void shouldCreateUser() {
+        when(userRepository.save(any())).thenReturn(Mono.just(User.builder().id(1L).build()));
+
+        StepVerifier.create(userService.createUser(userDto))
+                .expectNextMatches(userId -> userId.getId() == 1L)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldThrowWhenEmailExists() {
+        when(userRepository.save(any())).thenReturn(Mono.error(new DataIntegrityViolationException("insert",
+                new SQLException("duplicate key value violates unique constraint \"ux_users_email\""))));
+
+        StepVerifier.create(userService.createUser(userDto))
+                .expectErrorMatches(e -> e instanceof BadRequestException
+                        && e.getMessage().equals("The email is already used"))
+                .verify();
+    }
+
+    @Test
+    void shouldThrowWhenAgeLessThan18() {
+        userDto.setBirthDate(LocalDate.now().minusYears(10));
+
+        StepVerifier.create(userService.createUser(userDto))
+                .expectErrorMessage("You must be over 18 years old")
+                .verify();
+    }
+
+    @Test
+    void shouldThrowWhenUpdatedContactsUserNotFound() {
+        when(userRepository.updateContacts(1L, null, "Lviv")).thenReturn(Mono.just(0));
+
+        StepVerifier.create(userService.updateContactsInfo(1L, new ContactsDto(null, "Lviv")))
+                .expectError(NotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldSearchByBirthDateRange() {
+        LocalDate from = LocalDate.of(2004, 11, 6);
+        LocalDate to = LocalDate.of(2006, 11, 6);
+        when(userSearchRepository.findAllByBirthDateBetween(from, to)).thenReturn(Flux.just(userDto));
+
+        StepVerifier.create(userService.searchByBirthDateRange(from, to))
+                .expectNext(userDto)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldThrowWhenToIsLessThanFrom() {
+        StepVerifier.create(userService.searchByBirthDateRange(LocalDate.of(2006, 11, 6), LocalDate.of(2004, 11, 6)))
+                .expectError(BadRequestException.class)
+                .verify();
+    }
+}
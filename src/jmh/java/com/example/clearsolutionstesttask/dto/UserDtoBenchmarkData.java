@@ -0,0 +1,32 @@
+package com.example.clearsolutionstesttask.dto;
+
+import com.example.clearsolutionstesttask.entity.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+class UserDtoBenchmarkData {
+    static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(User.builder()
+                    .id((long) i)
+                    .firstName("Andrii")
+                    .lastName("Snovyda")
+                    .email("user" + i + "@gmail.com")
+                    .birthDate(LocalDate.of(1950 + i % 50, 1 + i % 12, 1 + i % 28))
+                    .phone("+38097" + (1000000 + i))
+                    .address("Lviv")
+                    .build());
+        }
+        return users;
+    }
+
+    static List<UserDto> dtos(int count) {
+        return users(count).stream()
+                .map(user -> new UserDto(user.getId(), user.getEmail(), user.getFirstName(), user.getLastName(),
+                        user.getBirthDate(), user.getPhone(), user.getAddress(), user.getVersion()))
+                .toList();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.clearsolutionstesttask.dto;
+
+import com.example.clearsolutionstesttask.entity.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserDtoMappingBenchmark {
+    @Param({"100", "10000"})
+    private int size;
+
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        users = UserDtoBenchmarkData.users(size);
+    }
+
+    @Benchmark
+    public List<UserDto> builder() {
+        return users.stream()
+                .map(user -> UserDto.builder()
+                        .id(user.getId())
+                        .email(user.getEmail())
+                        .firstName(user.getFirstName())
+                        .lastName(user.getLastName())
+                        .birthDate(user.getBirthDate())
+                        .phone(user.getPhone())
+                        .address(user.getAddress())
+                        .version(user.getVersion())
+                        .build())
+                .toList();
+    }
+
+    // same shape as the JPQL constructor expression used by UserRepository
+    @Benchmark
+    public List<UserDto> constructor() {
+        return users.stream()
+                .map(user -> new UserDto(user.getId(), user.getEmail(), user.getFirstName(), user.getLastName(),
+                        user.getBirthDate(), user.getPhone(), user.getAddress(), user.getVersion()))
+                .toList();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.clearsolutionstesttask.dto;
+
+import com.example.clearsolutionstesttask.service.NdjsonWriter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// "reflective" runs use the plain bean serializer UserDto had before UserDtoSerializer; with -prof gc,
+// gc.alloc.rate.norm divided by size gives bytes allocated per serialized user
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserDtoSerializationBenchmark {
+    @Param({"100", "10000"})
+    private int size;
+
+    private List<UserDto> users;
+    private ObjectMapper objectMapper;
+    private ObjectMapper reflectiveObjectMapper;
+
+    @JsonSerialize(using = JsonSerializer.None.class)
+    private interface ReflectiveUserDto {
+    }
+
+    @Setup
+    public void setUp() {
+        users = UserDtoBenchmarkData.dtos(size);
+        // JacksonAutoConfiguration turns timestamps off, so both sides write the ISO dates the controllers send
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        reflectiveObjectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .mixIn(UserDto.class, ReflectiveUserDto.class)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] serializeListReflective() throws JsonProcessingException {
+        return reflectiveObjectMapper.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public void writeNdjson() {
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, OutputStream.nullOutputStream())) {
+            users.forEach(writer::write);
+        }
+    }
+
+    // how the stream endpoint wrote lines before NdjsonWriter
+    @Benchmark
+    public void writeNdjsonPerLine() throws IOException {
+        OutputStream outputStream = OutputStream.nullOutputStream();
+        for (UserDto user : users) {
+            outputStream.write(reflectiveObjectMapper.writeValueAsBytes(user));
+            outputStream.write('\n');
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.clearsolutionstesttask.dto;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserDtoValidationBenchmark {
+    private Validator validator;
+    private UserDto validUser;
+    private UserDto invalidEmailUser;
+
+    @Setup
+    public void setUp() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        validUser = UserDtoBenchmarkData.dtos(1).get(0);
+        invalidEmailUser = UserDtoBenchmarkData.dtos(1).get(0);
+        invalidEmailUser.setEmail("andrii.gmail.com");
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserDto>> validUser() {
+        return validator.validate(validUser);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserDto>> invalidEmail() {
+        return validator.validate(invalidEmailUser);
+    }
+
+    // the scan @ValidUser delegates to, without Bean Validation's own bookkeeping
+    @Benchmark
+    public UserDtoViolation scanValidUser() {
+        return UserDtoViolation.of(validUser);
+    }
+
+    @Benchmark
+    public UserDtoViolation scanInvalidEmail() {
+        return UserDtoViolation.of(invalidEmailUser);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.clearsolutionstesttask.repository;
+
+import com.example.clearsolutionstesttask.ClearSolutionsTestTaskApplication;
+import com.example.clearsolutionstesttask.dto.UserDto;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Loads every user of the table through JPA twice: as managed User entities mapped to UserDto afterwards, and
+// through the SELECT_USER_DTO constructor projection the service uses. Both run in a read-only transaction on
+// the real application context, so the entity side pays for the persistence context and dirty-check snapshots.
+// With -prof gc, gc.alloc.rate.norm divided by rows is the bytes allocated per user.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserHydrationBenchmark {
+    private static final LocalDate FROM = LocalDate.of(1900, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2100, 1, 1);
+
+    @Param({"10000"})
+    private int rows;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private TransactionTemplate readOnly;
+
+    @Setup
+    public void setUp() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        context = new SpringApplicationBuilder(ClearSolutionsTestTaskApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "spring.datasource.username=postgres",
+                        "spring.datasource.password=",
+                        "users.sql.accounting.enabled=false")
+                .run();
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.execute("insert into users (first_name, last_name, email, birth_date, phone, address) " +
+                "select 'Andrii', 'Snovyda', 'user' || g || '@gmail.com', date '1960-01-01' + (g % 15000), " +
+                "'+38' || (1000000000 + g), 'Kyiv' from generate_series(1, " + rows + ") g");
+        jdbcTemplate.execute("vacuum analyze users");
+        userRepository = context.getBean(UserRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public List<UserDto> entities() {
+        return readOnly.execute(status -> userRepository.findAll().stream()
+                .map(user -> new UserDto(user.getId(), user.getEmail(), user.getFirstName(), user.getLastName(),
+                        user.getBirthDate(), user.getPhone(), user.getAddress(), user.getVersion()))
+                .toList());
+    }
+
+    @Benchmark
+    public List<UserDto> projection() {
+        return readOnly.execute(status -> userRepository.findAllByBirthDateBetween(FROM, TO, Pageable.unpaged()));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.clearsolutionstesttask.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Runs the findAllByBirthDateBetween query against the partitioned users table and an unpartitioned copy
+// of the same rows, for a narrow (one month) and a wide (ten years) range.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserRangeSearchBenchmark {
+    private static final String SEARCH = "select id, email, first_name, last_name, birth_date, phone, address, version " +
+            "from %s where birth_date between ? and ?";
+
+    @Param({"1000000"})
+    private int rows;
+
+    @Param({"users", "users_unpartitioned"})
+    private String table;
+
+    @Param({"30", "3650"})
+    private int rangeDays;
+
+    private EmbeddedPostgres postgres;
+    private Connection connection;
+    private PreparedStatement search;
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        postgres = EmbeddedPostgres.builder().start();
+        Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+        connection = postgres.getPostgresDatabase().getConnection();
+        try (Statement statement = connection.createStatement()) {
+            // ages ~ N(35, 12) clamped to 18.5..95, the same spread the load test uses
+            statement.execute("insert into users (first_name, last_name, email, birth_date) " +
+                    "select 'Andrii', 'Snovyda', 'user' || g || '@gmail.com', current_date - (365.25 * " +
+                    "greatest(18.5, least(95, 35 + 12 * sqrt(-2 * ln(1 - random())) * cos(2 * pi() * random()))))::int " +
+                    "from generate_series(1, " + rows + ") g");
+            statement.execute("create table users_unpartitioned as select * from users");
+            statement.execute("alter table users_unpartitioned add primary key (id)");
+            statement.execute("create index ix_users_unpartitioned_birth_date_id on users_unpartitioned (birth_date, id)");
+            statement.execute("vacuum analyze users");
+            statement.execute("vacuum analyze users_unpartitioned");
+        }
+        search = connection.prepareStatement(String.format(SEARCH, table));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, SQLException {
+        connection.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public long searchByBirthDateRange() throws SQLException {
+        LocalDate from = LocalDate.now().minusYears(ThreadLocalRandom.current().nextInt(20, 70));
+        search.setDate(1, Date.valueOf(from));
+        search.setDate(2, Date.valueOf(from.plusDays(rangeDays)));
+        long checksum = 0;
+        try (ResultSet resultSet = search.executeQuery()) {
+            while (resultSet.next())
+                checksum += resultSet.getLong(1);
+        }
+        return checksum;
+    }
+}
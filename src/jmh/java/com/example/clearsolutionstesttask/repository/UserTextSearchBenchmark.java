@@ -0,0 +1,67 @@
+package com.example.clearsolutionstesttask.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// First page of GET /users/search through UserTextSearchRepository on a table of generated names;
+// "query" covers a name prefix, a misspelt last name and an email fragment.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserTextSearchBenchmark {
+    private static final String FIRST_NAMES = "'{Andrii,Olena,Taras,Iryna,Dmytro,Oksana,Bohdan,Sofiia,Maksym,Yuliia}'";
+    private static final String LAST_NAMES = "'{Snovyda,Shevchenko,Kovalenko,Bondarenko,Tkachenko,Kravchenko,Melnyk,Boiko,Oliinyk,Lysenko}'";
+
+    @Param({"2000000"})
+    private int rows;
+
+    @Param({"andr", "snovida", "user123456"})
+    private String query;
+
+    private EmbeddedPostgres postgres;
+    private UserTextSearchRepository repository;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        postgres = EmbeddedPostgres.builder().start();
+        DataSource dataSource = postgres.getPostgresDatabase();
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("insert into users (first_name, last_name, email, birth_date) " +
+                    "select (" + FIRST_NAMES + "::text[])[1 + g % 10] || (g % 97), " +
+                    "(" + LAST_NAMES + "::text[])[1 + (g / 10) % 10] || (g % 89), " +
+                    "'user' || g || '@example.com', date '1950-01-01' + g % 20000 " +
+                    "from generate_series(1, " + rows + ") g");
+            statement.execute("vacuum analyze users");
+        }
+        repository = new UserTextSearchRepository(new NamedParameterJdbcTemplate(dataSource));
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(true);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        postgres.close();
+    }
+
+    @Benchmark
+    public List<UserTextSearchRepository.Match> firstPage() {
+        return transactionTemplate.execute(status -> repository.search(query, 2f, 0L, 21, 10_000));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.clearsolutionstesttask.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BirthDateValidationBenchmark {
+    private UserValidator userValidator;
+    private LocalDate birthDate;
+
+    @Setup
+    public void setUp() {
+        userValidator = new UserValidator();
+        userValidator.setMinAge(18);
+        birthDate = LocalDate.of(1990, 5, 17);
+    }
+
+    @Benchmark
+    public LocalDate validateBirthDate() {
+        userValidator.validateBirthDate(birthDate);
+        return birthDate;
+    }
+}
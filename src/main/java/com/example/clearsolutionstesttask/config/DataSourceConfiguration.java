@@ -0,0 +1,68 @@
+package com.example.clearsolutionstesttask.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+// Active only when users.replica.url is set; otherwise Boot's single auto-configured pool is used as before.
+// Both pools are beans so Boot binds hikaricp.* metrics for each of them, tagged pool=primary / pool=replica.
+@Configuration
+@ConditionalOnProperty(name = "users.replica.url")
+public class DataSourceConfiguration {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties primaryDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(
+            @Qualifier("primaryDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("users.replica")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    // a replica that is down at startup must not stop the application, and must fail fast afterwards
+    @Bean
+    @ConfigurationProperties("users.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Qualifier("replicaDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        dataSource.setInitializationFailTimeout(-1);
+        dataSource.setConnectionTimeout(2000);
+        return dataSource;
+    }
+
+    // the lazy proxy defers fetching a connection to the first statement, by which point the transaction
+    // manager has published the read-only flag the routing decision depends on
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 @Value("${users.replica.retryAfterMillis:5000}") long retryAfterMillis) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, retryAfterMillis));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.clearsolutionstesttask.config;
+
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+// Sends connections for read-only transactions to the replica. When the replica cannot hand out a connection
+// the request falls back to the primary and the replica is skipped for retryAfterMillis, so an outage costs
+// one failed attempt instead of a connection timeout per request.
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final long retryAfterMillis;
+    private volatile long replicaDownUntil;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, long retryAfterMillis) {
+        this.retryAfterMillis = retryAfterMillis;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && System.currentTimeMillis() >= replicaDownUntil
+                ? Route.REPLICA
+                : Route.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        DataSource primary = getResolvedDefaultDataSource();
+        if (target == primary)
+            return connection(primary, "primary");
+        try {
+            return connection(target, "replica");
+        } catch (SQLException e) {
+            replicaDownUntil = System.currentTimeMillis() + retryAfterMillis;
+            log.warn("Replica is unavailable, routing reads to the primary for {} ms: {}", retryAfterMillis, e.getMessage());
+            return connection(primary, "fallback");
+        }
+    }
+
+    private Connection connection(DataSource dataSource, String route) throws SQLException {
+        Connection connection = dataSource.getConnection();
+        Metrics.counter("users.datasource.connections", "route", route).increment();
+        return connection;
+    }
+}
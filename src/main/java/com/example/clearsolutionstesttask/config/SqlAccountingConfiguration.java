@@ -0,0 +1,34 @@
+package com.example.clearsolutionstesttask.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+// Wraps the data source everything else uses (JPA, JdbcTemplate, Flyway), so statements are counted
+// whichever layer sends them. COPY goes through the unwrapped PostgreSQL connection and is not counted.
+@Configuration
+@ConditionalOnProperty(name = "users.sql.accounting.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlAccountingConfiguration {
+
+    @Bean
+    public static BeanPostProcessor sqlAccountingDataSourcePostProcessor(Environment environment) {
+        long slowQueryMillis = environment.getProperty("users.sql.slowQueryMillis", Long.class, 500L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!beanName.equals("dataSource") || !(bean instanceof DataSource dataSource))
+                    return bean;
+                SqlAccountingListener listener = new SqlAccountingListener(slowQueryMillis);
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(listener)
+                        .build();
+            }
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.clearsolutionstesttask.config;
+
+import com.example.clearsolutionstesttask.filter.SqlStatistics;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Feeds SqlStatistics and logs statements slower than users.sql.slowQueryMillis. Bind parameters are never
+// logged, and string literals inlined into the SQL text are masked as well. Only the update counts the driver
+// returns anyway are looked at; result sets are not wrapped, so reading rows costs nothing extra.
+@Slf4j
+public class SqlAccountingListener implements QueryExecutionListener {
+    private static final String START = SqlAccountingListener.class.getName() + ".start";
+
+    private final long slowQueryNanos;
+
+    public SqlAccountingListener(long slowQueryMillis) {
+        this.slowQueryNanos = slowQueryMillis * 1_000_000;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long nanos = System.nanoTime() - execInfo.getCustomValue(START, Long.class);
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics != null)
+            statistics.recordStatement(nanos, rowsAffected(execInfo.getResult()));
+        if (nanos >= slowQueryNanos) {
+            String queries = queryInfoList.stream()
+                    .map(query -> redact(query.getQuery()))
+                    .collect(Collectors.joining("; "));
+            log.warn("Slow SQL, {} ms{}: {}", nanos / 1_000_000,
+                    execInfo.isBatch() ? ", batch of " + execInfo.getBatchSize() : "", queries);
+        }
+    }
+
+    // executeUpdate returns a count, executeBatch one per statement; a query's result set counts nothing
+    private static long rowsAffected(Object result) {
+        if (result instanceof Number count)
+            return Math.max(count.longValue(), 0);
+        long rows = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts)
+                rows += Math.max(count, 0);
+        }
+        return rows;
+    }
+
+    // 'john@doe.com' -> '?'
+    static String redact(String sql) {
+        StringBuilder redacted = new StringBuilder(sql.length());
+        boolean inLiteral = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c != '\'') {
+                if (!inLiteral)
+                    redacted.append(c);
+                continue;
+            }
+            if (inLiteral && i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+                i++;
+                continue;
+            }
+            inLiteral = !inLiteral;
+            if (inLiteral)
+                redacted.append("'?'");
+        }
+        return redacted.toString();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.clearsolutionstesttask.config;
+
+import com.example.clearsolutionstesttask.filter.AdmissionControlInterceptor;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebMvcConfiguration implements WebMvcConfigurer {
+    private final boolean admissionEnabled;
+    private final int transferLimit;
+    private final ThreadPoolTaskExecutor transferExecutor = new ThreadPoolTaskExecutor();
+
+    // stream and export each hold a pooled connection until the client has read everything, so together they
+    // may take the pool minus a reserve for the short requests
+    public WebMvcConfiguration(@Value("${users.admission.enabled:true}") boolean admissionEnabled,
+                               @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maxPoolSize,
+                               @Value("${users.admission.connectionReserve:4}") int connectionReserve) {
+        this.admissionEnabled = admissionEnabled;
+        this.transferLimit = Math.max(1, maxPoolSize - connectionReserve);
+        // one thread per admitted transfer and no queue: a body that can not start at once is refused with 503
+        // instead of waiting behind transfers that may take minutes
+        transferExecutor.setCorePoolSize(transferLimit);
+        transferExecutor.setMaxPoolSize(transferLimit);
+        transferExecutor.setQueueCapacity(0);
+        transferExecutor.setThreadNamePrefix("mvc-transfer-");
+        transferExecutor.initialize();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (admissionEnabled)
+            registry.addInterceptor(new AdmissionControlInterceptor(transferLimit));
+    }
+
+    // StreamingResponseBody handlers run here rather than on the shared applicationTaskExecutor
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(transferExecutor);
+    }
+
+    @PreDestroy
+    public void close() {
+        transferExecutor.shutdown();
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.clearsolutionstesttask.controller;
+
+import com.example.clearsolutionstesttask.dto.UserChangeDto;
+import com.example.clearsolutionstesttask.exception.TooManyRequestsException;
+import com.example.clearsolutionstesttask.service.NdjsonWriter;
+import com.example.clearsolutionstesttask.service.UserChangeService;
+import com.example.clearsolutionstesttask.service.UserChangeService.Subscription;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+// Tails user changes until the client disconnects or spring.mvc.async.request-timeout ends the response.
+// A consumer resumes with the last offset it has seen: `after`, or Last-Event-ID for EventSource clients.
+// Each subscriber waits for changes on a thread of its own pool, capped at users.changes.maxSubscribers,
+// so idle feeds never hold the MVC async threads that exports and streams need.
+@RestController
+@RequestMapping("/api/v1/testTask/users/changes")
+public class UserChangeController {
+    private static final byte[] SSE_HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+    // an empty line keeps idle connections open and tells a gone client apart
+    private static final byte[] NDJSON_HEARTBEAT = "\n".getBytes(StandardCharsets.UTF_8);
+
+    private final UserChangeService userChangeService;
+    private final ObjectMapper objectMapper;
+    private final long heartbeatMillis;
+    private final ThreadPoolExecutor feedExecutor;
+
+    public UserChangeController(UserChangeService userChangeService,
+                                ObjectMapper objectMapper,
+                                @Value("${users.changes.heartbeatMillis}") long heartbeatMillis,
+                                @Value("${users.changes.maxSubscribers}") int maxSubscribers) {
+        this.userChangeService = userChangeService;
+        this.objectMapper = objectMapper;
+        this.heartbeatMillis = heartbeatMillis;
+        this.feedExecutor = new ThreadPoolExecutor(0, maxSubscribers, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), new CustomizableThreadFactory("change-feed-"));
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> streamEvents(
+            @RequestParam(name = "after", required = false) String after,
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+
+        // subscribed up front, once streaming starts the status is already committed
+        Subscription subscription = userChangeService.subscribe(after != null ? after : lastEventId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(tail(subscription, MediaType.TEXT_EVENT_STREAM, this::sseFrames, SSE_HEARTBEAT));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> streamNdjson(
+            @RequestParam(name = "after", required = false) String after) {
+
+        Subscription subscription = userChangeService.subscribe(after);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(tail(subscription, MediaType.APPLICATION_NDJSON, this::ndjsonLines, NDJSON_HEARTBEAT));
+    }
+
+    @PreDestroy
+    public void close() {
+        feedExecutor.shutdownNow();
+    }
+
+    // every batch goes out as one pre-encoded chunk, a heartbeat when nothing changed within heartbeatMillis
+    private ResponseBodyEmitter tail(Subscription subscription, MediaType mediaType,
+                                     Function<List<UserChangeDto>, byte[]> format, byte[] heartbeat) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        AtomicBoolean done = new AtomicBoolean();
+        Runnable stop = () -> {
+            done.set(true);
+            subscription.close();
+        };
+        emitter.onCompletion(stop);
+        emitter.onTimeout(stop);
+        emitter.onError(e -> stop.run());
+        try {
+            feedExecutor.execute(() -> {
+                try (subscription) {
+                    while (!done.get()) {
+                        List<UserChangeDto> changes = subscription.next(heartbeatMillis);
+                        emitter.send(changes.isEmpty() ? heartbeat : format.apply(changes), mediaType);
+                    }
+                } catch (IOException e) {
+                    // the client is gone, the container completes the response
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    emitter.complete();
+                } catch (RuntimeException e) {
+                    emitter.completeWithError(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            subscription.close();
+            throw new TooManyRequestsException("Too many change feed subscribers");
+        }
+        return emitter;
+    }
+
+    private byte[] sseFrames(List<UserChangeDto> changes) {
+        ByteArrayOutputStream frames = new ByteArrayOutputStream(changes.size() * 256);
+        try {
+            for (UserChangeDto change : changes) {
+                frames.writeBytes(("id: " + change.getOffset() + "\ndata: ").getBytes(StandardCharsets.UTF_8));
+                frames.writeBytes(objectMapper.writeValueAsBytes(change));
+                frames.write('\n');
+                frames.write('\n');
+            }
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        return frames.toByteArray();
+    }
+
+    private byte[] ndjsonLines(List<UserChangeDto> changes) {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(changes.size() * 256);
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, lines)) {
+            changes.forEach(writer::write);
+        }
+        return lines.toByteArray();
+    }
+}
@@ -1,14 +1,28 @@
 package com.example.clearsolutionstesttask.controller;
 
 import com.example.clearsolutionstesttask.dto.ContactsDto;
+import com.example.clearsolutionstesttask.dto.UserBatchResultDto;
+import com.example.clearsolutionstesttask.dto.UserBulkDeleteDto;
+import com.example.clearsolutionstesttask.dto.UserBulkDeleteResultDto;
 import com.example.clearsolutionstesttask.dto.UserDto;
 import com.example.clearsolutionstesttask.dto.UserIdDto;
+import com.example.clearsolutionstesttask.dto.UserPageDto;
 import com.example.clearsolutionstesttask.exception.BadRequestException;
+import com.example.clearsolutionstesttask.filter.AdmissionLimit;
+import com.example.clearsolutionstesttask.service.NdjsonWriter;
+import com.example.clearsolutionstesttask.service.UserSearchResponseCache;
 import com.example.clearsolutionstesttask.service.UserService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -17,7 +31,11 @@ import java.util.List;
 @RequestMapping("/api/v1/testTask/users")
 @RequiredArgsConstructor
 public class UserController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final UserSearchResponseCache userSearchResponseCache;
 
     @PostMapping
     public ResponseEntity<UserIdDto> createUser(@Valid @RequestBody UserDto userDto) {
@@ -25,17 +43,25 @@ public class UserController {
         return ResponseEntity.ok(userId);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<UserBatchResultDto>> createUsers(@RequestBody List<UserDto> userDtos) {
+        List<UserBatchResultDto> results = userService.createUsers(userDtos);
+        return ResponseEntity.ok(results);
+    }
+
     @PutMapping("/{userId}")
     public ResponseEntity<Void> updateUser(@PathVariable Long userId,
-                                           @Valid @RequestBody UserDto userDto) {
-        userService.updateUser(userId, userDto);
+                                           @Valid @RequestBody UserDto userDto,
+                                           @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        userService.updateUser(userId, userDto, parseVersion(ifMatch));
         return ResponseEntity.ok().build();
     }
 
     @PatchMapping("/{userId}")
     public ResponseEntity<Void> updateContactsInfo(@PathVariable Long userId,
-                                                   @RequestBody ContactsDto contacts) {
-        userService.updateContactsInfo(userId, contacts);
+                                                   @RequestBody ContactsDto contacts,
+                                                   @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        userService.updateContactsInfo(userId, contacts, parseVersion(ifMatch));
         return ResponseEntity.ok().build();
     }
 
@@ -45,13 +71,114 @@ public class UserController {
         return ResponseEntity.ok().build();
     }
 
+    @AdmissionLimit(value = "bulkDelete", initialLimit = 1, maxLimit = 2)
+    @PostMapping("/bulkDelete")
+    public ResponseEntity<UserBulkDeleteResultDto> deleteUsers(@RequestBody UserBulkDeleteDto request) {
+        UserBulkDeleteResultDto result = userService.deleteUsers(request);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/{userId}")
+    public ResponseEntity<UserDto> getUser(@PathVariable Long userId) {
+        UserDto user = userService.findUser(userId);
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(user.getVersion()))
+                .body(user);
+    }
+
+    @AdmissionLimit("search")
     @GetMapping("/searchByBirthDateRange")
-    public ResponseEntity<List<UserDto>> searchByBirthDateRange(
+    public ResponseEntity<?> searchByBirthDateRange(
+            @RequestParam(name = "from") LocalDate from,
+            @RequestParam(name = "to") LocalDate to,
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "after", required = false) String after,
+            WebRequest request,
+            HttpServletResponse response) throws JsonProcessingException {
+
+        // checked before the version, so an invalid range never gets a 304
+        if (from.isAfter(to))
+            throw new BadRequestException("`From` must be less than `To`");
+
+        // one cheap query decides a revalidation; the ETag of a body is always the version read with its rows
+        String current = userService.findSearchVersion();
+        if (request.checkNotModified(eTag(current)))
+            return null;
+
+        if (limit == null && after == null) {
+            byte[] body = userSearchResponseCache.get(from, to, current);
+            if (body == null) {
+                UserPageDto page = userService.searchByBirthDateRange(from, to);
+                response.setHeader(HttpHeaders.ETAG, eTag(page.getVersion()));
+                if (!userSearchResponseCache.isEnabled())
+                    return ResponseEntity.ok(page.getUsers());
+                body = objectMapper.writeValueAsBytes(page.getUsers());
+                userSearchResponseCache.put(from, to, page.getVersion(), body);
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(body);
+        }
+
+        UserPageDto page = userService.searchByBirthDateRange(from, to, limit, after);
+        response.setHeader(HttpHeaders.ETAG, eTag(page.getVersion()));
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            builder.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return builder.body(page.getUsers());
+    }
+
+    @AdmissionLimit("textSearch")
+    @GetMapping("/search")
+    public ResponseEntity<List<UserDto>> searchByText(
+            @RequestParam(name = "q") String query,
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "after", required = false) String after) {
+
+        UserPageDto page = userService.searchByText(query, limit, after);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getUsers());
+    }
+
+    @AdmissionLimit(value = "stream", transfer = true)
+    @GetMapping(value = "/searchByBirthDateRange/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamByBirthDateRange(
             @RequestParam(name = "from") LocalDate from,
             @RequestParam(name = "to") LocalDate to) {
 
-        List<UserDto> users = userService.searchByBirthDateRange(from, to);
-        return ResponseEntity.ok(users);
+        // checked up front, once streaming starts the status is already committed
+        if (from.isAfter(to))
+            throw new BadRequestException("`From` must be less than `To`");
+
+        StreamingResponseBody body = outputStream -> {
+            try (NdjsonWriter writer = new NdjsonWriter(objectMapper, outputStream)) {
+                userService.streamByBirthDateRange(from, to, writer::write);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // weak: the same users may be serialized differently by another node or release
+    private static String eTag(String version) {
+        return "W/\"" + version + "\"";
+    }
+
+    // "3", W/"3" -> 3; absent or * -> no version check
+    private Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.equals("*"))
+            return null;
+        String version = ifMatch.startsWith("W/") ? ifMatch.substring(2) : ifMatch;
+        try {
+            return Long.valueOf(version.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid If-Match header");
+        }
     }
 
 }
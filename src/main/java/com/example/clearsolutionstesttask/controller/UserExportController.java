@@ -0,0 +1,72 @@
+package com.example.clearsolutionstesttask.controller;
+
+import com.example.clearsolutionstesttask.exception.BadRequestException;
+import com.example.clearsolutionstesttask.filter.AdmissionLimit;
+import com.example.clearsolutionstesttask.service.ExportFormat;
+import com.example.clearsolutionstesttask.service.UserExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+import static com.example.clearsolutionstesttask.controller.UserImportController.TEXT_CSV_VALUE;
+
+@RestController
+@RequestMapping("/api/v1/testTask/users/export")
+@RequiredArgsConstructor
+public class UserExportController {
+    private final UserExportService userExportService;
+
+    @AdmissionLimit(value = "export", transfer = true)
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(name = "format", defaultValue = "csv") String format,
+            @RequestParam(name = "from", required = false) LocalDate from,
+            @RequestParam(name = "to", required = false) LocalDate to,
+            @RequestParam(name = "gzip", defaultValue = "false") boolean gzip) {
+
+        ExportFormat exportFormat = parseFormat(format);
+        // checked up front, once streaming starts the status is already committed
+        if (from != null && to != null && from.isAfter(to))
+            throw new BadRequestException("`From` must be less than `To`");
+
+        // runs on the bounded MVC transfer executor, the request thread is released as soon as this method returns
+        StreamingResponseBody body = outputStream -> {
+            if (!gzip) {
+                userExportService.export(from, to, exportFormat, outputStream);
+                return;
+            }
+            GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, 64 * 1024);
+            userExportService.export(from, to, exportFormat, gzipOutputStream);
+            gzipOutputStream.finish();
+        };
+
+        String extension = exportFormat == ExportFormat.CSV ? "csv" : "ndjson";
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(exportFormat == ExportFormat.CSV
+                        ? MediaType.parseMediaType(TEXT_CSV_VALUE)
+                        : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("users." + extension).build().toString());
+        if (gzip)
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return response.body(body);
+    }
+
+    private ExportFormat parseFormat(String format) {
+        try {
+            return ExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("`Format` must be csv or ndjson");
+        }
+    }
+}
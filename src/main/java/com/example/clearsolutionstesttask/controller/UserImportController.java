@@ -0,0 +1,51 @@
+package com.example.clearsolutionstesttask.controller;
+
+import com.example.clearsolutionstesttask.dto.ImportJobDto;
+import com.example.clearsolutionstesttask.service.ImportFormat;
+import com.example.clearsolutionstesttask.service.UserImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/testTask/users/import")
+@RequiredArgsConstructor
+public class UserImportController {
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final UserImportService userImportService;
+
+    @PostMapping(consumes = {TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ImportJobDto> startImport(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                    InputStream upload) {
+        ImportFormat format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? ImportFormat.NDJSON
+                : ImportFormat.CSV;
+        ImportJobDto job = userImportService.startImport(upload, format);
+        return ResponseEntity.accepted().body(job);
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ImportJobDto> getJob(@PathVariable UUID jobId) {
+        ImportJobDto job = userImportService.findJob(jobId);
+        return ResponseEntity.ok(job);
+    }
+
+    @GetMapping("/{jobId}/rejects")
+    public ResponseEntity<Resource> getRejects(@PathVariable UUID jobId) {
+        Resource rejects = new FileSystemResource(userImportService.findRejects(jobId));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(TEXT_CSV_VALUE))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("rejects-" + jobId + ".csv").build().toString())
+                .body(rejects);
+    }
+}
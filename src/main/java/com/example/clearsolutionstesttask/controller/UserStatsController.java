@@ -0,0 +1,22 @@
+package com.example.clearsolutionstesttask.controller;
+
+import com.example.clearsolutionstesttask.dto.UserStatsDto;
+import com.example.clearsolutionstesttask.service.UserStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/testTask/users/stats")
+@RequiredArgsConstructor
+public class UserStatsController {
+    private final UserStatsService userStatsService;
+
+    @GetMapping
+    public ResponseEntity<UserStatsDto> getStats() {
+        UserStatsDto stats = userStatsService.getStats();
+        return ResponseEntity.ok(stats);
+    }
+}
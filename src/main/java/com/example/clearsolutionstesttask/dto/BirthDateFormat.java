@@ -0,0 +1,28 @@
+package com.example.clearsolutionstesttask.dto;
+
+import java.time.LocalDate;
+
+// ISO strings for every date from 1900 to 2099 are created on first use and then shared, so formatting a
+// birth date stops allocating after warm-up; the cache tops out around 73k entries. Unsynchronized on
+// purpose: a race only formats the same string twice.
+public final class BirthDateFormat {
+    private static final long FIRST_DAY = LocalDate.of(1900, 1, 1).toEpochDay();
+    private static final long LAST_DAY = LocalDate.of(2099, 12, 31).toEpochDay();
+    private static final String[] CACHE = new String[(int) (LAST_DAY - FIRST_DAY + 1)];
+
+    private BirthDateFormat() {
+    }
+
+    public static String format(LocalDate date) {
+        long day = date.toEpochDay();
+        if (day < FIRST_DAY || day > LAST_DAY)
+            return date.toString();
+        int index = (int) (day - FIRST_DAY);
+        String formatted = CACHE[index];
+        if (formatted == null) {
+            formatted = date.toString();
+            CACHE[index] = formatted;
+        }
+        return formatted;
+    }
+}
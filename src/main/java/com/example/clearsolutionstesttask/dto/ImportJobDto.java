@@ -0,0 +1,19 @@
+package com.example.clearsolutionstesttask.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportJobDto {
+    private UUID id;
+    private String status;
+    private Long processed;
+    private Long imported;
+    private Long rejected;
+    private String error;
+}
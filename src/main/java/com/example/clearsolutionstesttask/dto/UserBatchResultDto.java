@@ -0,0 +1,14 @@
+package com.example.clearsolutionstesttask.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserBatchResultDto {
+    private Integer index;
+    private Long id;
+    private String error;
+}
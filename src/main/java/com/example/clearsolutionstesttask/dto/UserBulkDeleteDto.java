@@ -0,0 +1,21 @@
+package com.example.clearsolutionstesttask.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// either ids or a from/to birth-date range
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserBulkDeleteDto {
+    private List<Long> ids;
+    private LocalDate from;
+    private LocalDate to;
+    private boolean dryRun;
+}
@@ -0,0 +1,15 @@
+package com.example.clearsolutionstesttask.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserBulkDeleteResultDto {
+    // on a dry run, the users that would be deleted
+    private Long deleted;
+    private Long notFound;
+    private Boolean dryRun;
+}
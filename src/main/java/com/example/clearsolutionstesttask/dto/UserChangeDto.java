@@ -0,0 +1,20 @@
+package com.example.clearsolutionstesttask.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserChangeDto {
+    private String offset;
+    private Type type;
+    private Long userId;
+    // the user's current state, null once deleted
+    private UserDto user;
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
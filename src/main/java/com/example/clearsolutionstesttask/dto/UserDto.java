@@ -1,8 +1,8 @@
 package com.example.clearsolutionstesttask.dto;
 
-import jakarta.validation.constraints.Email;
-import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotNull;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,21 +14,20 @@ import java.time.LocalDate;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
+@JsonSerialize(using = UserDtoSerializer.class)
+@ValidUser
 public class UserDto {
-    @Email(regexp = ".+@.+\\..+", message = "Invalid email format")
-    @NotBlank(message = "Email can not be blank")
-    private String email;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long id;
 
-    @NotBlank(message = "First name can not be blank")
+    private String email;
     private String firstName;
-
-    @NotBlank(message = "Last name can not be blank")
     private String lastName;
-
-    @NotNull(message = "Birth date can not be blank")
     private LocalDate birthDate;
-
     private String phone;
     private String address;
 
+    @JsonIgnore
+    private Long version;
+
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.example.clearsolutionstesttask.dto;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+// reports the violation on the offending field, as the field-level annotations did
+public class UserDtoConstraintValidator implements ConstraintValidator<ValidUser, UserDto> {
+
+    @Override
+    public boolean isValid(UserDto user, ConstraintValidatorContext context) {
+        if (user == null)
+            return true;
+        UserDtoViolation violation = UserDtoViolation.of(user);
+        if (violation == null)
+            return true;
+        context.disableDefaultConstraintViolation();
+        context.buildConstraintViolationWithTemplate(violation.getMessage())
+                .addPropertyNode(violation.getField())
+                .addConstraintViolation();
+        return false;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.clearsolutionstesttask.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+// Writes what the bean serializer would write for UserDto (field order, no version) without reflection:
+// field names are pre-encoded once and ISO birth dates come from BirthDateFormat's cache. The mapper's
+// WRITE_DATES_AS_TIMESTAMPS and default property inclusion still apply; with timestamps on, birth dates go
+// through the mapper's own LocalDate serializer. NON_DEFAULT is treated as NON_EMPTY and CUSTOM as NON_NULL.
+public class UserDtoSerializer extends StdSerializer<UserDto> {
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString EMAIL = new SerializedString("email");
+    private static final SerializableString FIRST_NAME = new SerializedString("firstName");
+    private static final SerializableString LAST_NAME = new SerializedString("lastName");
+    private static final SerializableString BIRTH_DATE = new SerializedString("birthDate");
+    private static final SerializableString PHONE = new SerializedString("phone");
+    private static final SerializableString ADDRESS = new SerializedString("address");
+
+    public UserDtoSerializer() {
+        super(UserDto.class);
+    }
+
+    @Override
+    public void serialize(UserDto user, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        JsonInclude.Include inclusion = provider.getConfig().getDefaultPropertyInclusion(UserDto.class).getValueInclusion();
+        boolean writeNulls = inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS;
+        boolean writeEmpty = inclusion != JsonInclude.Include.NON_EMPTY && inclusion != JsonInclude.Include.NON_DEFAULT;
+
+        generator.writeStartObject(user);
+        if (user.getId() != null) {
+            generator.writeFieldName(ID);
+            generator.writeNumber(user.getId());
+        } else if (writeNulls) {
+            generator.writeFieldName(ID);
+            generator.writeNull();
+        }
+        writeString(generator, EMAIL, user.getEmail(), writeNulls, writeEmpty);
+        writeString(generator, FIRST_NAME, user.getFirstName(), writeNulls, writeEmpty);
+        writeString(generator, LAST_NAME, user.getLastName(), writeNulls, writeEmpty);
+        LocalDate birthDate = user.getBirthDate();
+        if (birthDate != null && provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            generator.writeFieldName(BIRTH_DATE);
+            provider.defaultSerializeValue(birthDate, generator);
+        } else {
+            writeString(generator, BIRTH_DATE, birthDate == null ? null : BirthDateFormat.format(birthDate),
+                    writeNulls, writeEmpty);
+        }
+        writeString(generator, PHONE, user.getPhone(), writeNulls, writeEmpty);
+        writeString(generator, ADDRESS, user.getAddress(), writeNulls, writeEmpty);
+        generator.writeEndObject();
+    }
+
+    private static void writeString(JsonGenerator generator, SerializableString name, String value,
+                                    boolean writeNulls, boolean writeEmpty) throws IOException {
+        if (value == null) {
+            if (writeNulls) {
+                generator.writeFieldName(name);
+                generator.writeNull();
+            }
+        } else if (writeEmpty || !value.isEmpty()) {
+            generator.writeFieldName(name);
+            generator.writeString(value);
+        }
+    }
+}
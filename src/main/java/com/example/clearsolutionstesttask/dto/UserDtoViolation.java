@@ -0,0 +1,103 @@
+package com.example.clearsolutionstesttask.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Hand-written replacement for the per-field constraints UserDto used to carry. Same rules and messages:
+// @NotBlank on email and names, @NotNull on birthDate, and @Email(regexp = ".+@.+\\..+") checked by a
+// character scan instead of two regular expressions. Reports the first problem only; valid users allocate nothing.
+@Getter
+@RequiredArgsConstructor
+public enum UserDtoViolation {
+    EMAIL_BLANK("email", "Email can not be blank"),
+    EMAIL_FORMAT("email", "Invalid email format"),
+    FIRST_NAME_BLANK("firstName", "First name can not be blank"),
+    LAST_NAME_BLANK("lastName", "Last name can not be blank"),
+    BIRTH_DATE_NULL("birthDate", "Birth date can not be blank");
+
+    private static final int MAX_LOCAL_PART_LENGTH = 64;
+    private static final int MAX_DOMAIN_LENGTH = 255;
+    private static final int MAX_LABEL_LENGTH = 63;
+    private static final String ATEXT_SYMBOLS = "!#$%&'*+/=?^_`{|}~-";
+
+    private final String field;
+    private final String message;
+
+    public static UserDtoViolation of(UserDto user) {
+        if (isBlank(user.getEmail()))
+            return EMAIL_BLANK;
+        if (!isEmail(user.getEmail()))
+            return EMAIL_FORMAT;
+        if (isBlank(user.getFirstName()))
+            return FIRST_NAME_BLANK;
+        if (isBlank(user.getLastName()))
+            return LAST_NAME_BLANK;
+        if (user.getBirthDate() == null)
+            return BIRTH_DATE_NULL;
+        return null;
+    }
+
+    // same notion of blank as Hibernate Validator's @NotBlank: nothing left after String.trim()
+    static boolean isBlank(String value) {
+        if (value == null)
+            return true;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ')
+                return false;
+        }
+        return true;
+    }
+
+    // local part: dot-separated atoms; domain: at least two dot-separated hostname labels
+    static boolean isEmail(String email) {
+        int at = email.lastIndexOf('@');
+        if (at <= 0 || at > MAX_LOCAL_PART_LENGTH || email.length() - at - 1 > MAX_DOMAIN_LENGTH)
+            return false;
+        return isLocalPart(email, 0, at) && isDomain(email, at + 1, email.length());
+    }
+
+    private static boolean isLocalPart(String email, int from, int to) {
+        boolean afterDot = true;
+        for (int i = from; i < to; i++) {
+            char c = email.charAt(i);
+            if (c == '.') {
+                if (afterDot)
+                    return false;
+                afterDot = true;
+            } else if (isAtext(c)) {
+                afterDot = false;
+            } else {
+                return false;
+            }
+        }
+        return !afterDot;
+    }
+
+    private static boolean isDomain(String email, int from, int to) {
+        int labels = 0;
+        int labelStart = from;
+        for (int i = from; i <= to; i++) {
+            if (i < to && email.charAt(i) != '.') {
+                char c = email.charAt(i);
+                if (!(isAsciiLetterOrDigit(c) || c == '-' || c >= 0x80))
+                    return false;
+                continue;
+            }
+            int length = i - labelStart;
+            if (length == 0 || length > MAX_LABEL_LENGTH
+                    || email.charAt(labelStart) == '-' || email.charAt(i - 1) == '-')
+                return false;
+            labels++;
+            labelStart = i + 1;
+        }
+        return labels >= 2;
+    }
+
+    private static boolean isAtext(char c) {
+        return isAsciiLetterOrDigit(c) || c >= 0x80 || ATEXT_SYMBOLS.indexOf(c) >= 0;
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.clearsolutionstesttask.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserPageDto {
+    private List<UserDto> users;
+    private String nextCursor;
+    // user_changes version of the snapshot the users were read from, set by the birth-date searches only
+    private String version;
+
+    public UserPageDto(List<UserDto> users, String nextCursor) {
+        this(users, nextCursor, null);
+    }
+}
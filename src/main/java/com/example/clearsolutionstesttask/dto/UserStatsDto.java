@@ -0,0 +1,17 @@
+package com.example.clearsolutionstesttask.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserStatsDto {
+    private Long total;
+    private Map<Integer, Long> byYear;
+    private Map<String, Long> byMonth;
+    private Map<String, Long> byAge;
+}
@@ -14,7 +14,8 @@ import java.time.LocalDate;
 @Table(name = "users")
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq")
+    @SequenceGenerator(name = "users_id_seq", sequenceName = "users_id_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -36,4 +37,8 @@ public class User {
     @Column(name = "phone")
     private String phone;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.example.clearsolutionstesttask.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+// Maintained by the users_sync_identity trigger, read only for uniqueness checks
+@NoArgsConstructor
+@Getter
+@Entity
+@Immutable
+@Table(name = "user_identities")
+public class UserIdentity {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "email")
+    private String email;
+
+    @Column(name = "phone")
+    private String phone;
+
+}
@@ -0,0 +1,19 @@
+package com.example.clearsolutionstesttask.exception;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+public class ConstraintViolationTranslator {
+    public static final String EMAIL_UNIQUE_INDEX = "ux_users_email";
+    public static final String PHONE_UNIQUE_INDEX = "ux_users_phone";
+
+    public static BadRequestException translate(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        if (message != null && message.contains(EMAIL_UNIQUE_INDEX)) {
+            return new BadRequestException("The email is already used");
+        }
+        if (message != null && message.contains(PHONE_UNIQUE_INDEX)) {
+            return new BadRequestException("The phone is already used");
+        }
+        return new BadRequestException("Invalid request parameters");
+    }
+}
@@ -1,8 +1,17 @@
 package com.example.clearsolutionstesttask.exception;
 
+import com.example.clearsolutionstesttask.filter.AdmissionControlInterceptor;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionTimedOutException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -13,34 +22,85 @@ import java.sql.SQLException;
 @AllArgsConstructor
 @RestControllerAdvice
 public class GlobalExceptionHandler {
+    private static final String RETRY_AFTER_SECONDS = "1";
+
     @ExceptionHandler(BadRequestException.class)
     public ResponseEntity<?> handleBadRequestException(BadRequestException ex) {
+        countException(ex);
         return ExceptionBuilder.buildExceptionResponse(ex, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<?> handleNotFoundException(NotFoundException ex) {
+        countException(ex);
         return ExceptionBuilder.buildExceptionResponse(ex, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<?> handlePreconditionFailedException(PreconditionFailedException ex) {
+        countException(ex);
+        return ExceptionBuilder.buildExceptionResponse(ex, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<?> handleTooManyRequestsException(TooManyRequestsException ex) {
+        countException(ex);
+        return retryLater(ex, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    // every MVC async thread is busy with a transfer, see WebMvcConfiguration
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<?> handleTaskRejectedException(TaskRejectedException ex) {
+        countException(ex);
+        return retryLater(new IllegalStateException("Too many concurrent transfers"), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    // a search or a bulk delete chunk ran out of its time budget, or of lock_timeout
+    @ExceptionHandler({QueryTimeoutException.class, TransactionTimedOutException.class, CannotAcquireLockException.class})
+    public ResponseEntity<?> handleTimeout(Exception ex, HttpServletRequest request) {
+        countException(ex);
+        Object endpoint = request.getAttribute(AdmissionControlInterceptor.ENDPOINT_ATTRIBUTE);
+        Metrics.counter("users.admission.rejected",
+                "endpoint", endpoint == null ? "none" : endpoint.toString(), "reason", "timeout").increment();
+        return retryLater(new IllegalStateException("The request took too long"), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(SQLException.class)
     public ResponseEntity<?> handleSqlException(SQLException ex) {
+        countException(ex);
         return ExceptionBuilder.buildExceptionResponse(ex, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<?> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        countException(ex);
+        return ExceptionBuilder.buildExceptionResponse(
+                ConstraintViolationTranslator.translate(ex), HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<?> handleValidationException(MethodArgumentNotValidException ex) {
+        countException(ex);
         return ExceptionBuilder.buildExceptionResponse(
                 new BadRequestException("Invalid request parameters"), HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(MissingServletRequestParameterException.class)
     public ResponseEntity<?> handleMissingParameter(MissingServletRequestParameterException ex) {
+        countException(ex);
         String parameterName = ex.getParameterName();
         String errorMessage = "Required parameter is missing: " + parameterName;
         return ExceptionBuilder.buildExceptionResponse(
                 new BadRequestException(errorMessage), HttpStatus.BAD_REQUEST);
     }
-}
 
+    private ResponseEntity<?> retryLater(Exception ex, HttpStatus status) {
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(ExceptionBuilder.buildExceptionResponse(ex, status).getBody());
+    }
 
+    private void countException(Exception ex) {
+        Metrics.counter("users.exceptions", "exception", ex.getClass().getSimpleName()).increment();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.clearsolutionstesttask.filter;
+
+import com.example.clearsolutionstesttask.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+// Applies @AdmissionLimit. For streaming handlers afterCompletion only runs once the async dispatch is done,
+// so the slot stays taken for the whole transfer; the async dispatch itself is let through without a new slot.
+// Transfer handlers hold a connection for as long as the client takes to read, so their latency says nothing
+// about the database: they share one fixed number of slots instead of a gradient limiter each.
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+    public static final String ENDPOINT_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".endpoint";
+    private static final String START_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".start";
+    private static final String IN_FLIGHT_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".inFlight";
+    private static final String TRANSFER_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".transfer";
+
+    private final Map<String, GradientConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    private final Semaphore transfers;
+
+    public AdmissionControlInterceptor(int transferLimit) {
+        this.transfers = new Semaphore(transferLimit);
+        Metrics.gauge("users.admission.limit", Tags.of("endpoint", "transfer"), transfers, semaphore -> transferLimit);
+        Metrics.gauge("users.admission.inFlight", Tags.of("endpoint", "transfer"),
+                transfers, semaphore -> transferLimit - semaphore.availablePermits());
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC || !(handler instanceof HandlerMethod method))
+            return true;
+        AdmissionLimit admissionLimit = method.getMethodAnnotation(AdmissionLimit.class);
+        if (admissionLimit == null)
+            return true;
+
+        String endpoint = admissionLimit.value();
+        if (admissionLimit.transfer()) {
+            if (!transfers.tryAcquire())
+                reject(endpoint);
+            request.setAttribute(ENDPOINT_ATTRIBUTE, endpoint);
+            request.setAttribute(TRANSFER_ATTRIBUTE, Boolean.TRUE);
+            return true;
+        }
+        GradientConcurrencyLimiter limiter = limiters.computeIfAbsent(endpoint, key -> register(key, admissionLimit));
+        int inFlight = limiter.tryAcquire();
+        if (inFlight == 0)
+            reject(endpoint);
+        request.setAttribute(ENDPOINT_ATTRIBUTE, endpoint);
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        request.setAttribute(IN_FLIGHT_ATTRIBUTE, inFlight);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(TRANSFER_ATTRIBUTE) != null) {
+            request.removeAttribute(TRANSFER_ATTRIBUTE);
+            transfers.release();
+            return;
+        }
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start == null)
+            return;
+        request.removeAttribute(START_ATTRIBUTE);
+        String endpoint = (String) request.getAttribute(ENDPOINT_ATTRIBUTE);
+        limiters.get(endpoint).release(System.nanoTime() - (Long) start, (Integer) request.getAttribute(IN_FLIGHT_ATTRIBUTE));
+    }
+
+    private static void reject(String endpoint) {
+        Metrics.counter("users.admission.rejected", "endpoint", endpoint, "reason", "concurrency").increment();
+        throw new TooManyRequestsException("Too many concurrent " + endpoint + " requests");
+    }
+
+    private static GradientConcurrencyLimiter register(String endpoint, AdmissionLimit admissionLimit) {
+        GradientConcurrencyLimiter limiter =
+                new GradientConcurrencyLimiter(admissionLimit.initialLimit(), admissionLimit.maxLimit());
+        Metrics.gauge("users.admission.limit", Tags.of("endpoint", endpoint),
+                limiter, GradientConcurrencyLimiter::getLimit);
+        Metrics.gauge("users.admission.inFlight", Tags.of("endpoint", endpoint),
+                limiter, GradientConcurrencyLimiter::getInFlight);
+        return limiter;
+    }
+}
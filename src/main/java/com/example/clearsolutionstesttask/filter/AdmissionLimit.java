@@ -0,0 +1,20 @@
+package com.example.clearsolutionstesttask.filter;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Caps concurrent calls of the annotated handler; handlers with the same name share one limiter
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AdmissionLimit {
+    String value();
+
+    int initialLimit() default 4;
+
+    int maxLimit() default 20;
+
+    // holds a database connection for the whole response; counted against the shared transfer limit
+    boolean transfer() default false;
+}
@@ -0,0 +1,75 @@
+package com.example.clearsolutionstesttask.filter;
+
+import com.example.clearsolutionstesttask.exception.ExceptionBuilder;
+import com.example.clearsolutionstesttask.exception.ExceptionDetails;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@ConditionalOnProperty(name = "users.connectionLimiter.enabled", havingValue = "true")
+public class ConnectionPoolLimiterFilter extends OncePerRequestFilter {
+    private final Semaphore permits;
+    private final long maxWaitMillis;
+    private final ObjectMapper objectMapper;
+
+    // with virtual threads Tomcat no longer bounds concurrency, so requests are capped at the pool size here
+    // instead of parking inside Hikari until its connection timeout fires
+    public ConnectionPoolLimiterFilter(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                       @Value("${users.connectionLimiter.maxWaitMillis:1000}") long maxWaitMillis,
+                                       ObjectMapper objectMapper) {
+        this.permits = new Semaphore(poolSize, true);
+        this.maxWaitMillis = maxWaitMillis;
+        this.objectMapper = objectMapper;
+        Metrics.gauge("users.connectionLimiter.available", permits, Semaphore::availablePermits);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            Metrics.counter("users.connectionLimiter.rejected").increment();
+            reject(response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        ExceptionDetails details = ExceptionBuilder.buildExceptionResponse(
+                new IllegalStateException("Too many concurrent requests"), HttpStatus.SERVICE_UNAVAILABLE).getBody();
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader("Retry-After", "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), details);
+    }
+}
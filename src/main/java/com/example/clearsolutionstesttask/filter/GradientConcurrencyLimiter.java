@@ -0,0 +1,66 @@
+package com.example.clearsolutionstesttask.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Latency-gradient concurrency limit: the limit grows by ~sqrt(limit) while latency stays near its long-term
+// average and shrinks in proportion once latency climbs past TOLERANCE times that average. Requests over the
+// limit are refused immediately, never queued.
+public class GradientConcurrencyLimiter {
+    private static final double TOLERANCE = 2.0;
+    private static final double SMOOTHING = 0.2;
+    private static final int LONG_WINDOW = 100;
+    private static final int MIN_LIMIT = 1;
+
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private double longRttNanos;
+
+    public GradientConcurrencyLimiter(int initialLimit, int maxLimit) {
+        this.limit = initialLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    // returns the number of requests in flight including this one, or 0 when it was refused
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit)
+                return 0;
+            if (inFlight.compareAndSet(current, current + 1))
+                return current + 1;
+        }
+    }
+
+    public void release(long rttNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        update(rttNanos, inFlightAtStart);
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtStart) {
+        if (longRttNanos == 0)
+            longRttNanos = rttNanos;
+        else
+            longRttNanos += (rttNanos - longRttNanos) / LONG_WINDOW;
+        // after a slow spike, pull the baseline back down quickly so the limit can recover
+        if (longRttNanos > TOLERANCE * rttNanos)
+            longRttNanos *= 0.95;
+
+        // a sample taken while most of the limit was unused says nothing about whether the limit is right
+        if (inFlightAtStart * 2 < limit)
+            return;
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / rttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.max(MIN_LIMIT, Math.min(maxLimit, newLimit));
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.clearsolutionstesttask.filter;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// Counts the SQL each API request issues on its own thread and reports it in X-Sql-Statements,
+// X-Sql-Rows-Affected and Server-Timing, and in the users.sql.* meters per endpoint. Work done off the request
+// thread (exports, streams, the change feed) happens after the headers are out and is not counted.
+@Component
+@ConditionalOnProperty(name = "users.sql.accounting.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlAccountingFilter extends OncePerRequestFilter {
+    public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+    public static final String ROWS_AFFECTED_HEADER = "X-Sql-Rows-Affected";
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        SqlStatistics statistics = SqlStatistics.start();
+        StatisticsResponse statisticsResponse = new StatisticsResponse(response, statistics);
+        try {
+            filterChain.doFilter(request, statisticsResponse);
+            // responses without a body, such as 304
+            statisticsResponse.writeHeaders();
+        } finally {
+            SqlStatistics.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            Tags tags = Tags.of("method", request.getMethod(), "uri", pattern == null ? "UNKNOWN" : pattern.toString());
+            Metrics.summary("users.sql.statements", tags).record(statistics.getStatements());
+            Metrics.summary("users.sql.rowsAffected", tags).record(statistics.getRowsAffected());
+            Metrics.timer("users.sql.time", tags).record(statistics.getNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // the SQL is done by the time the body is written, so the headers go out just before it
+    private static class StatisticsResponse extends HttpServletResponseWrapper {
+        private final SqlStatistics statistics;
+        private boolean headersWritten;
+
+        StatisticsResponse(HttpServletResponse response, SqlStatistics statistics) {
+            super(response);
+            this.statistics = statistics;
+        }
+
+        private void writeHeaders() {
+            if (headersWritten || isCommitted())
+                return;
+            headersWritten = true;
+            setHeader(STATEMENTS_HEADER, String.valueOf(statistics.getStatements()));
+            setHeader(ROWS_AFFECTED_HEADER, String.valueOf(statistics.getRowsAffected()));
+            addHeader("Server-Timing", String.format(Locale.ROOT, "sql;dur=%.2f", statistics.getNanos() / 1e6));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+    }
+}
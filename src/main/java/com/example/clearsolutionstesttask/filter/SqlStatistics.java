@@ -0,0 +1,44 @@
+package com.example.clearsolutionstesttask.filter;
+
+// JDBC work done on the current thread between start() and stop(): statements sent (a JDBC batch is one
+// round trip), rows inserted, updated or deleted, and time spent waiting on the driver
+public class SqlStatistics {
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long rowsAffected;
+    private long nanos;
+
+    public static SqlStatistics start() {
+        SqlStatistics statistics = new SqlStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    // null when nobody is counting
+    public static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    public void recordStatement(long nanos, long rowsAffected) {
+        this.statements++;
+        this.nanos += nanos;
+        this.rowsAffected += rowsAffected;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRowsAffected() {
+        return rowsAffected;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+}
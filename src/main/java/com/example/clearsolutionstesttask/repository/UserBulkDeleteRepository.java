@@ -0,0 +1,63 @@
+package com.example.clearsolutionstesttask.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+// every delete is its own transaction, so the row locks of one chunk are released before the next is taken
+@Repository
+@RequiredArgsConstructor
+public class UserBulkDeleteRepository {
+    private static final String DELETE_BY_IDS = "delete from users where id in (:ids) returning id";
+    // birth_date in the key lets each chunk touch only the partitions of the range
+    private static final String DELETE_IN_RANGE = "delete from users where (id, birth_date) in (" +
+            "select id, birth_date from users where birth_date between :from and :to limit :limit) returning id";
+    private static final String COUNT_BY_IDS = "select count(*) from users where id in (:ids)";
+    private static final String COUNT_IN_RANGE = "select coalesce(sum(users), 0) from user_birth_date_counts " +
+            "where birth_date between :from and :to";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public List<Long> deleteByIds(Collection<Long> ids, long timeoutMillis) {
+        limitChunk(timeoutMillis);
+        return jdbcTemplate.queryForList(DELETE_BY_IDS, new MapSqlParameterSource("ids", ids), Long.class);
+    }
+
+    @Transactional
+    public List<Long> deleteInRange(LocalDate from, LocalDate to, int limit, long timeoutMillis) {
+        limitChunk(timeoutMillis);
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("from", from)
+                .addValue("to", to)
+                .addValue("limit", limit);
+        return jdbcTemplate.queryForList(DELETE_IN_RANGE, parameters, Long.class);
+    }
+
+    @Transactional(readOnly = true)
+    public long countByIds(Collection<Long> ids) {
+        return jdbcTemplate.queryForObject(COUNT_BY_IDS, new MapSqlParameterSource("ids", ids), Long.class);
+    }
+
+    // served by the per-birth-date counters, not by scanning the range
+    @Transactional(readOnly = true)
+    public long countInRange(LocalDate from, LocalDate to) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("from", from)
+                .addValue("to", to);
+        return jdbcTemplate.queryForObject(COUNT_IN_RANGE, parameters, Long.class);
+    }
+
+    // both settings end with the transaction; waiting on a lock counts against the chunk as well
+    private void limitChunk(long timeoutMillis) {
+        jdbcTemplate.getJdbcTemplate().queryForList(
+                "select set_config('statement_timeout', ?, true), set_config('lock_timeout', ?, true)",
+                timeoutMillis + "ms", timeoutMillis + "ms");
+    }
+}
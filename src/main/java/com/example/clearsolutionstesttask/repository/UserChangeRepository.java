@@ -0,0 +1,75 @@
+package com.example.clearsolutionstesttask.repository;
+
+import com.example.clearsolutionstesttask.dto.UserChangeDto;
+import com.example.clearsolutionstesttask.dto.UserDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+public class UserChangeRepository {
+    // changes of transactions still running, or younger than one that is, are held back until it finishes
+    private static final String SETTLED = "tx < pg_snapshot_xmin(pg_current_snapshot())::text::bigint";
+    private static final String FIND_AFTER = "select c.tx, c.id, c.type, c.user_id, " +
+            "u.email, u.first_name, u.last_name, u.birth_date, u.phone, u.address, u.version from (" +
+            "select tx, id, type, user_id from user_changes " +
+            "where (tx, id) > (:afterTx, :afterId) and " + SETTLED + " order by tx, id limit :limit) c " +
+            "left join users u on u.id = c.user_id " +
+            "order by c.tx, c.id";
+    private static final String FIND_LAST = "select tx, id from user_changes where " + SETTLED +
+            " order by tx desc, id desc limit 1";
+    // Names exactly the set of user_changes rows the current snapshot sees, and with it the visible users:
+    // everything older than the snapshot's xmin has finished and is summed up by its newest offset, the few
+    // younger rows are hashed. Only xmin moving on without any new change gives a new version for the same rows.
+    private static final String FIND_VERSION = "select coalesce((select tx || '_' || id from user_changes where " +
+            SETTLED + " order by tx desc, id desc limit 1), '0_0') || '-' || coalesce((" +
+            "select md5(string_agg(tx || '_' || id, ',' order by tx, id)) from user_changes " +
+            "where tx >= pg_snapshot_xmin(pg_current_snapshot())::text::bigint), '')";
+    private static final String DELETE_OLDER_THAN = "delete from user_changes where changed_at < now() - make_interval(days => :days)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record Change(long tx, long id, UserChangeDto change) {
+    }
+
+    public List<Change> findAfter(long afterTx, long afterId, int limit) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("afterTx", afterTx)
+                .addValue("afterId", afterId)
+                .addValue("limit", limit);
+        return jdbcTemplate.query(FIND_AFTER, parameters, (resultSet, rowNum) -> {
+            long tx = resultSet.getLong("tx");
+            long id = resultSet.getLong("id");
+            long userId = resultSet.getLong("user_id");
+            UserDto user = resultSet.getString("email") == null ? null : new UserDto(userId,
+                    resultSet.getString("email"),
+                    resultSet.getString("first_name"),
+                    resultSet.getString("last_name"),
+                    resultSet.getObject("birth_date", LocalDate.class),
+                    resultSet.getString("phone"),
+                    resultSet.getString("address"),
+                    resultSet.getLong("version"));
+            UserChangeDto.Type type = UserChangeDto.Type.valueOf(resultSet.getString("type"));
+            return new Change(tx, id, new UserChangeDto(tx + "_" + id, type, userId, user));
+        });
+    }
+
+    public Optional<Change> findLast() {
+        return jdbcTemplate.query(FIND_LAST, (resultSet, rowNum) ->
+                new Change(resultSet.getLong("tx"), resultSet.getLong("id"), null)).stream().findFirst();
+    }
+
+    public String findVersion() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject(FIND_VERSION, String.class);
+    }
+
+    public int deleteOlderThan(int days) {
+        return jdbcTemplate.update(DELETE_OLDER_THAN, new MapSqlParameterSource("days", days));
+    }
+}
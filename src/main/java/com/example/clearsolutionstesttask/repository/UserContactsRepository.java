@@ -0,0 +1,27 @@
+package com.example.clearsolutionstesttask.repository;
+
+import com.example.clearsolutionstesttask.dto.ContactsDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class UserContactsRepository {
+    private static final String UPDATE_CONTACTS =
+            "update users set phone = ?, address = ?, version = version + 1 where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // one JDBC batch; returns the number of rows each update touched, in the map's iteration order
+    public int[] updateContacts(Map<Long, ContactsDto> contactsByUserId) {
+        List<Object[]> rows = new ArrayList<>(contactsByUserId.size());
+        contactsByUserId.forEach((userId, contacts) ->
+                rows.add(new Object[]{contacts.getPhone(), contacts.getAddress(), userId}));
+        return jdbcTemplate.batchUpdate(UPDATE_CONTACTS, rows);
+    }
+}
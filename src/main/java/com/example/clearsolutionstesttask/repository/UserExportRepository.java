@@ -0,0 +1,34 @@
+package com.example.clearsolutionstesttask.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+
+@Repository
+@RequiredArgsConstructor
+public class UserExportRepository {
+    private static final String COPY_OUT = "copy (select id, email, first_name, last_name, birth_date, phone, address " +
+            "from users where birth_date between '%s' and '%s' order by birth_date, id) " +
+            "to stdout with (format csv, header)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // COPY takes no bind parameters, LocalDate always prints as a plain ISO date
+    public long copyOutCsv(LocalDate from, LocalDate to, OutputStream out) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyOut(String.format(COPY_OUT, from, to), out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
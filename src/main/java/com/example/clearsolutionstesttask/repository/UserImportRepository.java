@@ -0,0 +1,83 @@
+package com.example.clearsolutionstesttask.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.UUID;
+
+@Repository
+@RequiredArgsConstructor
+public class UserImportRepository {
+    private static final String COPY_IN = "copy users_import_staging " +
+            "(job_id, line_number, first_name, last_name, email, birth_date, address, phone) " +
+            "from stdin with (format csv)";
+
+    private static final String REJECT_USED_EMAILS = "update users_import_staging s " +
+            "set reject_reason = 'The email is already used' " +
+            "where s.job_id = ? and (" +
+            "exists (select 1 from user_identities u where u.email = s.email) or " +
+            "exists (select 1 from users_import_staging d " +
+            "where d.job_id = s.job_id and d.email = s.email and d.line_number < s.line_number))";
+
+    private static final String REJECT_USED_PHONES = "update users_import_staging s " +
+            "set reject_reason = 'The phone is already used' " +
+            "where s.job_id = ? and s.reject_reason is null and s.phone is not null and (" +
+            "exists (select 1 from user_identities u where u.phone = s.phone) or " +
+            "exists (select 1 from users_import_staging d " +
+            "where d.job_id = s.job_id and d.phone = s.phone and d.line_number < s.line_number " +
+            "and d.reject_reason is null))";
+
+    private static final String MERGE = "insert into users (first_name, last_name, email, birth_date, address, phone) " +
+            "select first_name, last_name, email, birth_date, address, phone from users_import_staging " +
+            "where job_id = ? and reject_reason is null order by line_number";
+
+    private static final String COPY_REJECTS_OUT = "copy (select line_number, reject_reason from users_import_staging " +
+            "where job_id = '%s' and reject_reason is not null order by line_number) to stdout with (format csv)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public long copyIn(Reader csvRows) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_IN, csvRows);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public int rejectUsedEmails(UUID jobId) {
+        return jdbcTemplate.update(REJECT_USED_EMAILS, jobId);
+    }
+
+    public int rejectUsedPhones(UUID jobId) {
+        return jdbcTemplate.update(REJECT_USED_PHONES, jobId);
+    }
+
+    public int merge(UUID jobId) {
+        return jdbcTemplate.update(MERGE, jobId);
+    }
+
+    // the job id is a UUID we generated, so formatting it into the statement is safe; COPY takes no bind parameters
+    public void copyRejectsOut(UUID jobId, Writer rejects) {
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyOut(String.format(COPY_REJECTS_OUT, jobId), rejects);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public void deleteStaging(UUID jobId) {
+        jdbcTemplate.update("delete from users_import_staging where job_id = ?", jobId);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.clearsolutionstesttask.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+@RequiredArgsConstructor
+public class UserPartitionRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public void createPartitionFor(LocalDate birthDate) {
+        jdbcTemplate.queryForList("select create_users_partition(?)", birthDate);
+    }
+}
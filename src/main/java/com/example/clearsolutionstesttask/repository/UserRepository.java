@@ -1,17 +1,108 @@
 package com.example.clearsolutionstesttask.repository;
 
+import com.example.clearsolutionstesttask.dto.UserDto;
 import com.example.clearsolutionstesttask.entity.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
-    Boolean existsUserByEmail(String email);
+    String SELECT_USER_DTO = "select new com.example.clearsolutionstesttask.dto.UserDto(" +
+            "u.id, u.email, u.firstName, u.lastName, u.birthDate, u.phone, u.address, u.version) from User u ";
+
+    interface UniqueKeys {
+        String getEmail();
+
+        String getPhone();
+    }
+
+    @Query("select i.email as email, i.phone as phone from UserIdentity i " +
+            "where i.email in :emails or i.phone in :phones")
+    List<UniqueKeys> findUniqueKeys(@Param("emails") Collection<String> emails,
+                                    @Param("phones") Collection<String> phones);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set " +
+            "u.firstName = :#{#user.firstName}, " +
+            "u.lastName = :#{#user.lastName}, " +
+            "u.email = :#{#user.email}, " +
+            "u.birthDate = :#{#user.birthDate}, " +
+            "u.phone = :#{#user.phone}, " +
+            "u.address = :#{#user.address}, " +
+            "u.version = u.version + 1 " +
+            "where u.id = :#{#user.id}")
+    int updateUser(@Param("user") User user);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set " +
+            "u.firstName = :#{#user.firstName}, " +
+            "u.lastName = :#{#user.lastName}, " +
+            "u.email = :#{#user.email}, " +
+            "u.birthDate = :#{#user.birthDate}, " +
+            "u.phone = :#{#user.phone}, " +
+            "u.address = :#{#user.address}, " +
+            "u.version = u.version + 1 " +
+            "where u.id = :#{#user.id} and u.version = :#{#user.version}")
+    int updateUserIfVersion(@Param("user") User user);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.phone = :phone, u.address = :address, u.version = u.version + 1 " +
+            "where u.id = :id")
+    int updateContacts(@Param("id") Long id,
+                       @Param("phone") String phone,
+                       @Param("address") String address);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.phone = :phone, u.address = :address, u.version = u.version + 1 " +
+            "where u.id = :id and u.version = :version")
+    int updateContactsIfVersion(@Param("id") Long id,
+                                @Param("phone") String phone,
+                                @Param("address") String address,
+                                @Param("version") Long version);
+
+    @Transactional
+    @Modifying
+    @Query("delete from User u where u.id = :id")
+    int deleteUserById(@Param("id") Long id);
+
+    @Query(SELECT_USER_DTO + "where u.id = :id")
+    Optional<UserDto> findDtoById(@Param("id") Long id);
+
+    @Query(SELECT_USER_DTO + "where u.birthDate between :from and :to")
+    List<UserDto> findAllByBirthDateBetween(@Param("from") LocalDate from,
+                                            @Param("to") LocalDate to,
+                                            Pageable pageable);
 
-    Boolean existsUserByPhone(String phone);
+    @Query(SELECT_USER_DTO +
+            "where u.birthDate between :from and :to " +
+            "and (u.birthDate > :afterBirthDate or (u.birthDate = :afterBirthDate and u.id > :afterId)) " +
+            "order by u.birthDate, u.id")
+    List<UserDto> findPageByBirthDateBetween(@Param("from") LocalDate from,
+                                          @Param("to") LocalDate to,
+                                          @Param("afterBirthDate") LocalDate afterBirthDate,
+                                          @Param("afterId") Long afterId,
+                                          Pageable pageable);
 
-    List<User> findAllByBirthDateBetween(LocalDate from, LocalDate to);
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_USER_DTO + "where u.birthDate between :from and :to order by u.birthDate, u.id")
+    Stream<UserDto> streamAllByBirthDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
 }
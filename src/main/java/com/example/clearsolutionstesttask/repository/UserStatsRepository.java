@@ -0,0 +1,40 @@
+package com.example.clearsolutionstesttask.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// reads user_birth_date_counts, which triggers on users keep up to date; one row per birth date, not per user
+@Repository
+@RequiredArgsConstructor
+public class UserStatsRepository {
+    private static final String COUNT_BY_MONTH = "select extract(year from birth_date)::int as year, " +
+            "extract(month from birth_date)::int as month, sum(users) as users " +
+            "from user_birth_date_counts where users > 0 group by 1, 2 order by 1, 2";
+
+    private static final String COUNT_BY_AGE = "select extract(year from age(?, birth_date))::int as age, " +
+            "sum(users) as users from user_birth_date_counts where users > 0 group by 1 order by 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Map<YearMonth, Long> countByMonth() {
+        Map<YearMonth, Long> counts = new LinkedHashMap<>();
+        jdbcTemplate.query(COUNT_BY_MONTH, resultSet -> {
+            counts.put(YearMonth.of(resultSet.getInt("year"), resultSet.getInt("month")), resultSet.getLong("users"));
+        });
+        return counts;
+    }
+
+    public Map<Integer, Long> countByAge(LocalDate today) {
+        Map<Integer, Long> counts = new LinkedHashMap<>();
+        jdbcTemplate.query(COUNT_BY_AGE, resultSet -> {
+            counts.put(resultSet.getInt("age"), resultSet.getLong("users"));
+        }, today);
+        return counts;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.clearsolutionstesttask.repository;
+
+import com.example.clearsolutionstesttask.dto.UserDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class UserTextSearchRepository {
+    // <% is word similarity: "andr" matches "Andrii" and "snovida" matches "Snovyda"; each arm can use its
+    // column's trigram GIN index. Ranked by best score, ties broken by id, so (score, id) is a stable cursor.
+    private static final String SEARCH = "select * from (" +
+            "select id, email, first_name, last_name, birth_date, phone, address, version, greatest(" +
+            "word_similarity(:query, first_name), word_similarity(:query, last_name), word_similarity(:query, email)) as score " +
+            "from users where :query <% first_name or :query <% last_name or :query <% email) ranked " +
+            "where score < :afterScore or (score = :afterScore and id > :afterId) " +
+            "order by score desc, id limit :limit";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record Match(UserDto user, float score) {
+    }
+
+    // statement_timeout is set for the surrounding transaction only
+    public List<Match> search(String query, float afterScore, long afterId, int limit, long timeoutMillis) {
+        jdbcTemplate.getJdbcTemplate().queryForList("select set_config('statement_timeout', ?, true)", timeoutMillis + "ms");
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("query", query)
+                .addValue("afterScore", afterScore)
+                .addValue("afterId", afterId)
+                .addValue("limit", limit);
+        return jdbcTemplate.query(SEARCH, parameters, (resultSet, rowNum) -> new Match(
+                new UserDto(resultSet.getLong("id"),
+                        resultSet.getString("email"),
+                        resultSet.getString("first_name"),
+                        resultSet.getString("last_name"),
+                        resultSet.getObject("birth_date", LocalDate.class),
+                        resultSet.getString("phone"),
+                        resultSet.getString("address"),
+                        resultSet.getLong("version")),
+                resultSet.getFloat("score")));
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.clearsolutionstesttask.service;
+
+import com.example.clearsolutionstesttask.dto.ContactsDto;
+import com.example.clearsolutionstesttask.dto.UserDto;
+import com.example.clearsolutionstesttask.repository.UserContactsRepository;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// Opt-in write-behind for unconditional contact PATCHes (users.contacts.writeBehind.enabled).
+// Pending contacts are kept per user, last write wins, and flushed as one JDBC batch every flushMillis
+// and on shutdown; a crash loses at most one interval of acknowledged PATCHes. An entry stays pending
+// until its write has committed, so GET keeps seeing it (see UserServiceImpl.findUser) until the
+// database does. When the buffer is full, or disabled, PATCHes take the synchronous path.
+@Slf4j
+@Component
+public class ContactsWriteBehindBuffer {
+    private final UserContactsRepository userContactsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final UserCache userCache;
+    private final boolean enabled;
+    private final int maxPending;
+    private final Map<Long, ContactsDto> pending = new ConcurrentHashMap<>();
+    // writes of pending entries hold the write lock, readers that lay them over a row hold the read lock
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+    private final Timer flushTimer = Metrics.timer("users.contacts.writeBehind.flush");
+    private volatile boolean closed;
+
+    public ContactsWriteBehindBuffer(UserContactsRepository userContactsRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     UserCache userCache,
+                                     @Value("${users.contacts.writeBehind.enabled}") boolean enabled,
+                                     @Value("${users.contacts.writeBehind.maxPending}") int maxPending) {
+        this.userContactsRepository = userContactsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userCache = userCache;
+        this.enabled = enabled;
+        this.maxPending = maxPending;
+        Metrics.gauge("users.contacts.writeBehind.pending", pending, Map::size);
+    }
+
+    // false means the caller has to write synchronously
+    public boolean offer(Long userId, ContactsDto contacts) {
+        if (!enabled || closed)
+            return false;
+        if (pending.size() >= maxPending && !pending.containsKey(userId)) {
+            Metrics.counter("users.contacts.writeBehind.overflow").increment();
+            return false;
+        }
+        pending.put(userId, new ContactsDto(contacts.getPhone(), contacts.getAddress()));
+        Metrics.counter("users.contacts.writeBehind.offered").increment();
+        return true;
+    }
+
+    public boolean isPending(Long userId) {
+        return enabled && pending.containsKey(userId);
+    }
+
+    // read-your-writes on this node: the loader returns a fresh copy that is not shared with the cache.
+    // The copy reports the version the pending write will produce, so its ETag holds for a conditional write
+    // that writes it through first. Loading under the read lock keeps a flush from committing between the
+    // load and the overlay, which would count the pending write twice.
+    public UserDto overlay(Long userId, Supplier<UserDto> loader) {
+        flushLock.readLock().lock();
+        try {
+            UserDto user = loader.get();
+            ContactsDto contacts = enabled ? pending.get(userId) : null;
+            if (contacts != null) {
+                user.setPhone(contacts.getPhone());
+                user.setAddress(contacts.getAddress());
+                user.setVersion(user.getVersion() + 1);
+            }
+            return user;
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    // a synchronous write to the same user supersedes its pending contacts; waiting for an in-flight
+    // flush keeps that flush from landing after the synchronous write
+    public void discard(Long userId) {
+        if (!isPending(userId))
+            return;
+        flushLock.writeLock().lock();
+        try {
+            pending.remove(userId);
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    // a conditional write must see the version the acknowledged contacts produced, so they are written first;
+    // a 412 then tells the client that its If-Match predates that PATCH
+    public void writeThrough(Long userId) {
+        if (!isPending(userId))
+            return;
+        flushLock.writeLock().lock();
+        try {
+            ContactsDto contacts = pending.get(userId);
+            if (contacts == null)
+                return;
+            writeOne(userId, contacts);
+            pending.remove(userId, contacts);
+            userCache.evict(userId);
+            Metrics.counter("users.contacts.writeBehind.written").increment();
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${users.contacts.writeBehind.flushMillis}")
+    public void flush() {
+        if (pending.isEmpty())
+            return;
+        flushLock.writeLock().lock();
+        try {
+            Map<Long, ContactsDto> batch = new LinkedHashMap<>(pending);
+            flushTimer.record(() -> write(batch));
+            // only entries nobody has overwritten in the meantime are done
+            batch.forEach((userId, contacts) -> {
+                pending.remove(userId, contacts);
+                userCache.evict(userId);
+            });
+            Metrics.counter("users.contacts.writeBehind.written").increment(batch.size());
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        closed = true;
+        flush();
+    }
+
+    private void write(Map<Long, ContactsDto> batch) {
+        try {
+            int[] updated = transactionTemplate.execute(status -> userContactsRepository.updateContacts(batch));
+            int notFound = 0;
+            for (int count : updated) {
+                if (count == 0)
+                    notFound++;
+            }
+            countDropped("notFound", notFound);
+        } catch (DataIntegrityViolationException e) {
+            // one already used phone must not sink the rest of the batch
+            batch.forEach((userId, contacts) -> writeOne(userId, contacts));
+        }
+    }
+
+    private void writeOne(Long userId, ContactsDto contacts) {
+        try {
+            int[] updated = transactionTemplate.execute(status ->
+                    userContactsRepository.updateContacts(Map.of(userId, contacts)));
+            if (updated[0] == 0)
+                countDropped("notFound", 1);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Dropped pending contacts of user {}: {}", userId, e.getMostSpecificCause().getMessage());
+            countDropped("conflict", 1);
+        }
+    }
+
+    private void countDropped(String reason, int count) {
+        if (count > 0)
+            Metrics.counter("users.contacts.writeBehind.dropped", "reason", reason).increment(count);
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.clearsolutionstesttask.service;
+
+public enum ExportFormat {
+    CSV,
+    NDJSON
+}
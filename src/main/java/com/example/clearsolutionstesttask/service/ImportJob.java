@@ -0,0 +1,40 @@
+package com.example.clearsolutionstesttask.service;
+
+import com.example.clearsolutionstesttask.dto.ImportJobDto;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Getter
+@Setter
+@RequiredArgsConstructor
+class ImportJob {
+    enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final UUID id;
+    private final Path rejects;
+    private final Instant createdAt = Instant.now();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile Status status = Status.QUEUED;
+    private volatile String error;
+
+    boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    ImportJobDto toDto() {
+        return new ImportJobDto(id, status.name(), processed.get(), imported.get(), rejected.get(), error);
+    }
+}
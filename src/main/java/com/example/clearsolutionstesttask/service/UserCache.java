@@ -0,0 +1,49 @@
+package com.example.clearsolutionstesttask.service;
+
+import com.example.clearsolutionstesttask.dto.UserDto;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+// The "users" cache with a guard against stale puts. A reader that loaded a user before a write committed
+// could otherwise put the old row after the writer's evict and serve it until expireAfterWrite. Every evict
+// bumps a stamp for the user's stripe after the write has committed; a reader whose stripe was bumped while
+// it loaded takes its own entry back out. Callers evict only once the write is visible to new readers.
+@Component
+public class UserCache {
+    public static final String USERS_CACHE = "users";
+    private static final int STRIPES = 1024;
+
+    private final Cache cache;
+    private final AtomicLongArray evictions = new AtomicLongArray(STRIPES);
+
+    public UserCache(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache(USERS_CACHE);
+    }
+
+    public UserDto get(Long userId, Supplier<UserDto> loader) {
+        UserDto cached = cache.get(userId, UserDto.class);
+        if (cached != null)
+            return cached;
+        int stripe = stripe(userId);
+        long stamp = evictions.get(stripe);
+        UserDto user = loader.get();
+        cache.put(userId, user);
+        // checked after the put: an evict that ran between the load and the put is seen here
+        if (evictions.get(stripe) != stamp)
+            cache.evict(userId);
+        return user;
+    }
+
+    public void evict(Long userId) {
+        evictions.incrementAndGet(stripe(userId));
+        cache.evict(userId);
+    }
+
+    private static int stripe(Long userId) {
+        return Long.hashCode(userId) & (STRIPES - 1);
+    }
+}
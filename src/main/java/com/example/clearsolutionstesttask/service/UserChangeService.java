@@ -0,0 +1,18 @@
+package com.example.clearsolutionstesttask.service;
+
+import com.example.clearsolutionstesttask.dto.UserChangeDto;
+
+import java.util.List;
+
+public interface UserChangeService {
+    // after is the offset of the last change the consumer has seen; null starts at the current end of the feed
+    Subscription subscribe(String after);
+
+    interface Subscription extends AutoCloseable {
+        // the next batch in offset order, empty if nothing changed within timeoutMillis
+        List<UserChangeDto> next(long timeoutMillis) throws InterruptedException;
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.clearsolutionstesttask.service;
+
+import com.example.clearsolutionstesttask.dto.UserChangeDto;
+import com.example.clearsolutionstesttask.exception.BadRequestException;
+import com.example.clearsolutionstesttask.exception.TooManyRequestsException;
+import com.example.clearsolutionstesttask.repository.UserChangeRepository;
+import com.example.clearsolutionstesttask.repository.UserChangeRepository.Change;
+import io.micrometer.core.instrument.Metrics;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// One poller reads user_changes past the shared head and hands each batch to every live subscriber's
+// bounded buffer. A subscriber that resumes from an older offset, or whose buffer would overflow, reads
+// from the table on its own thread until it reaches the head again, so a slow consumer costs queries
+// instead of memory and never loses changes.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserChangeServiceImpl implements UserChangeService {
+    private static final String CURSOR_SEPARATOR = "_";
+
+    private final UserChangeRepository userChangeRepository;
+    private final Set<FeedSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private Change head;
+
+    @Setter //for testing
+    @Value("${users.changes.batchSize}")
+    private Integer batchSize;
+
+    @Setter //for testing
+    @Value("${users.changes.bufferSize}")
+    private Integer bufferSize;
+
+    @Setter //for testing
+    @Value("${users.changes.maxSubscribers}")
+    private Integer maxSubscribers;
+
+    @Value("${users.changes.retentionDays}")
+    private Integer retentionDays;
+
+    public Subscription subscribe(String after) {
+        if (subscriptions.size() >= maxSubscribers)
+            throw new TooManyRequestsException("Too many change feed subscribers");
+
+        long afterTx;
+        long afterId;
+        if (after == null) {
+            Change start = currentHead();
+            afterTx = start.tx();
+            afterId = start.id();
+        } else {
+            String[] cursor = after.split(CURSOR_SEPARATOR);
+            try {
+                afterTx = Long.parseLong(cursor[0]);
+                afterId = Long.parseLong(cursor[1]);
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new BadRequestException("Invalid `After` cursor");
+            }
+        }
+        FeedSubscription subscription = new FeedSubscription(afterTx, afterId);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    @Scheduled(fixedDelayString = "${users.changes.pollMillis}")
+    public synchronized void poll() {
+        if (subscriptions.stream().noneMatch(subscription -> subscription.live)) {
+            // nobody to hand changes to, so only keep track of where the feed ends
+            head = null;
+            return;
+        }
+        List<Change> batch;
+        do {
+            Change from = currentHead();
+            batch = userChangeRepository.findAfter(from.tx(), from.id(), batchSize);
+            if (batch.isEmpty())
+                break;
+            for (FeedSubscription subscription : subscriptions) {
+                if (subscription.live)
+                    subscription.offer(batch);
+            }
+            head = batch.get(batch.size() - 1);
+        } while (batch.size() == batchSize);
+    }
+
+    @Scheduled(cron = "${users.partitions.cron}")
+    public void deleteExpiredChanges() {
+        try {
+            int deleted = userChangeRepository.deleteOlderThan(retentionDays);
+            log.info("Deleted {} user changes older than {} days", deleted, retentionDays);
+        } catch (RuntimeException e) {
+            log.warn("Could not delete expired user changes", e);
+        }
+    }
+
+    private synchronized Change currentHead() {
+        if (head == null)
+            head = userChangeRepository.findLast().orElse(new Change(0, 0, null));
+        return head;
+    }
+
+    private static int compare(long tx, long id, Change change) {
+        int byTx = Long.compare(tx, change.tx());
+        return byTx != 0 ? byTx : Long.compare(id, change.id());
+    }
+
+    private class FeedSubscription implements Subscription {
+        private final BlockingQueue<Change> buffer = new ArrayBlockingQueue<>(bufferSize);
+        // last delivered offset, touched by the consumer thread only
+        private long afterTx;
+        private long afterId;
+        private volatile boolean live;
+
+        FeedSubscription(long afterTx, long afterId) {
+            this.afterTx = afterTx;
+            this.afterId = afterId;
+        }
+
+        // called by the poller under the service lock
+        void offer(List<Change> batch) {
+            if (buffer.remainingCapacity() < batch.size()) {
+                live = false;
+                Metrics.counter("users.changes.overflow").increment();
+                return;
+            }
+            buffer.addAll(batch);
+        }
+
+        public List<UserChangeDto> next(long timeoutMillis) throws InterruptedException {
+            List<Change> batch = new ArrayList<>(batchSize);
+            boolean fromTable = !live && buffer.isEmpty();
+            if (fromTable) {
+                batch = userChangeRepository.findAfter(afterTx, afterId, batchSize);
+            } else {
+                Change first = buffer.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    buffer.drainTo(batch, batchSize - 1);
+                }
+            }
+
+            List<UserChangeDto> changes = new ArrayList<>(batch.size());
+            for (Change change : batch) {
+                // a subscriber that caught up past the poller's head gets those changes once more from it
+                if (compare(afterTx, afterId, change) >= 0)
+                    continue;
+                changes.add(change.change());
+                afterTx = change.tx();
+                afterId = change.id();
+            }
+            if (fromTable && batch.size() < batchSize)
+                catchUp();
+            Metrics.counter("users.changes.delivered").increment(changes.size());
+            return changes;
+        }
+
+        // switches to the poller once nothing is left between this subscriber and the head
+        private void catchUp() {
+            synchronized (UserChangeServiceImpl.this) {
+                if (compare(afterTx, afterId, currentHead()) >= 0)
+                    live = true;
+            }
+        }
+
+        public void close() {
+            subscriptions.remove(this);
+        }
+    }
+}
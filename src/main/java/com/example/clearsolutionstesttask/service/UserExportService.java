@@ -0,0 +1,8 @@
+package com.example.clearsolutionstesttask.service;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+public interface UserExportService {
+    void export(LocalDate from, LocalDate to, ExportFormat format, OutputStream outputStream);
+}
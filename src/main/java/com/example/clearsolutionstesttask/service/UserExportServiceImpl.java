@@ -0,0 +1,36 @@
+package com.example.clearsolutionstesttask.service;
+
+import com.example.clearsolutionstesttask.repository.UserExportRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+@Service
+@RequiredArgsConstructor
+public class UserExportServiceImpl implements UserExportService {
+    public static final LocalDate EARLIEST_BIRTH_DATE = LocalDate.of(1, 1, 1);
+    public static final LocalDate LATEST_BIRTH_DATE = LocalDate.of(9999, 12, 31);
+
+    private final UserExportRepository userExportRepository;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+
+    // both formats read through a server-side cursor inside one read-only transaction, so heap use does not grow with the table
+    @Transactional(readOnly = true)
+    public void export(LocalDate from, LocalDate to, ExportFormat format, OutputStream outputStream) {
+        LocalDate lower = from == null ? EARLIEST_BIRTH_DATE : from;
+        LocalDate upper = to == null ? LATEST_BIRTH_DATE : to;
+
+        if (format == ExportFormat.CSV) {
+            userExportRepository.copyOutCsv(lower, upper, outputStream);
+            return;
+        }
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, outputStream)) {
+            userService.streamByBirthDateRange(lower, upper, writer::write);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.clearsolutionstesttask.service;
+
+import com.example.clearsolutionstesttask.dto.UserDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Turns one upload line into a UserDto. Safe to share between the validation threads once the CSV header is read.
+class UserImportParser {
+    private static final List<String> CSV_COLUMNS =
+            List.of("email", "firstname", "lastname", "birthdate", "phone", "address");
+
+    private final ImportFormat format;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    UserImportParser(ImportFormat format, ObjectMapper objectMapper) {
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    // accepts both camelCase and snake_case column names, in any order
+    void readHeader(String header) {
+        if (header == null)
+            throw new IllegalArgumentException("The CSV header is missing");
+        List<String> names = splitCsv(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().replace("_", "").toLowerCase(), i);
+        }
+        for (String column : CSV_COLUMNS) {
+            if (!columns.containsKey(column))
+                throw new IllegalArgumentException("The CSV header has no " + column + " column");
+        }
+    }
+
+    UserDto parse(String line) throws JsonProcessingException {
+        if (format == ImportFormat.NDJSON)
+            return objectMapper.readValue(line, UserDto.class);
+
+        List<String> fields = splitCsv(line);
+        String birthDate = field(fields, "birthdate");
+        return UserDto.builder()
+                .email(field(fields, "email"))
+                .firstName(field(fields, "firstname"))
+                .lastName(field(fields, "lastname"))
+                .birthDate(birthDate == null ? null : LocalDate.parse(birthDate))
+                .phone(field(fields, "phone"))
+                .address(field(fields, "address"))
+                .build();
+    }
+
+    private String field(List<String> fields, String column) {
+        int index = columns.get(column);
+        if (index >= fields.size())
+            return null;
+        String value = fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // quoted so that empty strings and nulls stay distinct for COPY ... with (format csv)
+    static void appendCsv(StringBuilder csv, Object value) {
+        if (value == null)
+            return;
+        csv.append('"').append(value.toString().replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.clearsolutionstesttask.service;
+
+import com.example.clearsolutionstesttask.dto.ImportJobDto;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.UUID;
+
+public interface UserImportService {
+    ImportJobDto startImport(InputStream upload, ImportFormat format);
+    ImportJobDto findJob(UUID jobId);
+    Path findRejects(UUID jobId);
+}
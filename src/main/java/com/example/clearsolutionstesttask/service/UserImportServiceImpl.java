@@ -0,0 +1,219 @@
+package com.example.clearsolutionstesttask.service;
+
+import com.example.clearsolutionstesttask.dto.ImportJobDto;
+import com.example.clearsolutionstesttask.dto.UserDto;
+import com.example.clearsolutionstesttask.exception.NotFoundException;
+import com.example.clearsolutionstesttask.repository.UserImportRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserImportServiceImpl implements UserImportService {
+    private static final int CHUNK_SIZE = 10_000;
+    private static final Duration JOB_RETENTION = Duration.ofDays(1);
+    private static final int MERGE_ATTEMPTS = 3;
+
+    private final UserImportRepository userImportRepository;
+    private final UserValidator userValidator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<UUID, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    // the upload is spooled to disk so the request returns as soon as the body is received
+    public ImportJobDto startImport(InputStream upload, ImportFormat format) {
+        removeExpiredJobs();
+        UUID jobId = UUID.randomUUID();
+        Path uploadFile;
+        Path rejectsFile;
+        try {
+            uploadFile = Files.createTempFile("users-import-" + jobId, ".upload");
+            Files.copy(upload, uploadFile, StandardCopyOption.REPLACE_EXISTING);
+            rejectsFile = Files.createTempFile("users-import-" + jobId, ".rejects.csv");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        ImportJob job = new ImportJob(jobId, rejectsFile);
+        jobs.put(jobId, job);
+        executor.submit(() -> run(job, uploadFile, format));
+        return job.toDto();
+    }
+
+    public ImportJobDto findJob(UUID jobId) {
+        return getJob(jobId).toDto();
+    }
+
+    public Path findRejects(UUID jobId) {
+        return getJob(jobId).getRejects();
+    }
+
+    private ImportJob getJob(UUID jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null)
+            throw new NotFoundException("Import job not found");
+        return job;
+    }
+
+    private void run(ImportJob job, Path uploadFile, ImportFormat format) {
+        job.setStatus(ImportJob.Status.RUNNING);
+        UserImportParser parser = new UserImportParser(format, objectMapper);
+        try (BufferedReader reader = Files.newBufferedReader(uploadFile);
+             Writer rejects = Files.newBufferedWriter(job.getRejects())) {
+            rejects.write("line,error\n");
+
+            long lineNumber = 0;
+            if (format == ImportFormat.CSV) {
+                parser.readHeader(reader.readLine());
+                lineNumber++;
+            }
+            long[] lineNumbers = new long[CHUNK_SIZE];
+            String[] lines = new String[CHUNK_SIZE];
+            int count = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank())
+                    continue;
+                lineNumbers[count] = lineNumber;
+                lines[count++] = line;
+                if (count == CHUNK_SIZE) {
+                    stageChunk(job, parser, lineNumbers, lines, count, rejects);
+                    count = 0;
+                }
+            }
+            if (count > 0)
+                stageChunk(job, parser, lineNumbers, lines, count, rejects);
+
+            merge(job, rejects);
+            job.setStatus(ImportJob.Status.COMPLETED);
+        } catch (Exception e) {
+            log.error("User import {} failed", job.getId(), e);
+            job.setError(e.getMessage());
+            job.setStatus(ImportJob.Status.FAILED);
+        } finally {
+            userImportRepository.deleteStaging(job.getId());
+            try {
+                Files.deleteIfExists(uploadFile);
+            } catch (IOException e) {
+                log.warn("Could not delete import upload {}", uploadFile, e);
+            }
+        }
+    }
+
+    // parsing and validation run in parallel, the valid rows then go to the staging table in one COPY
+    private void stageChunk(ImportJob job, UserImportParser parser, long[] lineNumbers, String[] lines, int count,
+                            Writer rejects) throws IOException {
+        UserDto[] users = new UserDto[count];
+        String[] errors = new String[count];
+        IntStream.range(0, count).parallel().forEach(i -> {
+            try {
+                users[i] = parser.parse(lines[i]);
+                errors[i] = userValidator.validationError(users[i]);
+            } catch (Exception e) {
+                errors[i] = "Malformed line";
+            }
+        });
+
+        StringBuilder csv = new StringBuilder(count * 128);
+        int staged = 0;
+        for (int i = 0; i < count; i++) {
+            if (errors[i] != null) {
+                rejects.write(lineNumbers[i] + ",\"" + errors[i] + "\"\n");
+                job.getRejected().incrementAndGet();
+                continue;
+            }
+            UserDto user = users[i];
+            csv.append(job.getId()).append(',').append(lineNumbers[i]).append(',');
+            UserImportParser.appendCsv(csv, user.getFirstName());
+            csv.append(',');
+            UserImportParser.appendCsv(csv, user.getLastName());
+            csv.append(',');
+            UserImportParser.appendCsv(csv, user.getEmail());
+            csv.append(',');
+            UserImportParser.appendCsv(csv, user.getBirthDate());
+            csv.append(',');
+            UserImportParser.appendCsv(csv, user.getAddress());
+            csv.append(',');
+            UserImportParser.appendCsv(csv, user.getPhone());
+            csv.append('\n');
+            staged++;
+        }
+        if (staged > 0)
+            userImportRepository.copyIn(new StringReader(csv.toString()));
+        job.getProcessed().addAndGet(count);
+    }
+
+    // uniqueness against users and within the upload is settled by set-based statements in one transaction.
+    // A concurrent writer that commits an email or phone of the upload after the reject statements ran makes
+    // the insert fail and roll everything back; the next attempt sees its row and rejects that line instead.
+    private void merge(ImportJob job, Writer rejects) throws IOException {
+        UUID jobId = job.getId();
+        long staged = job.getProcessed().get() - job.getRejected().get();
+        int merged = 0;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                merged = transactionTemplate.execute(status -> {
+                    userImportRepository.rejectUsedEmails(jobId);
+                    userImportRepository.rejectUsedPhones(jobId);
+                    return userImportRepository.merge(jobId);
+                });
+                break;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == MERGE_ATTEMPTS)
+                    throw new IllegalStateException("Nothing was imported: emails or phones of the upload kept being "
+                            + "taken by concurrent writes, submit it again", e);
+                log.info("User import {} conflicted with a concurrent write, merging again", jobId);
+            }
+        }
+        job.getImported().set(merged);
+        job.getRejected().addAndGet(staged - merged);
+        rejects.flush();
+        userImportRepository.copyRejectsOut(jobId, rejects);
+    }
+
+    private void removeExpiredJobs() {
+        Instant expiry = Instant.now().minus(JOB_RETENTION);
+        jobs.values().removeIf(job -> {
+            if (!job.isFinished() || job.getCreatedAt().isAfter(expiry))
+                return false;
+            try {
+                Files.deleteIfExists(job.getRejects());
+            } catch (IOException e) {
+                log.warn("Could not delete import rejects {}", job.getRejects(), e);
+            }
+            return true;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
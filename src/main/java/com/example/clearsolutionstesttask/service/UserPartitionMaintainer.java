@@ -0,0 +1,32 @@
+package com.example.clearsolutionstesttask.service;
+
+import com.example.clearsolutionstesttask.repository.UserPartitionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+// users is partitioned by birth-date decade; the next decade's partition is created well before the first
+// row for it can arrive, because a partition cannot be attached once the default partition holds its rows
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserPartitionMaintainer {
+    private final UserPartitionRepository userPartitionRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${users.partitions.cron}")
+    public void createUpcomingPartitions() {
+        LocalDate today = LocalDate.now();
+        try {
+            userPartitionRepository.createPartitionFor(today);
+            userPartitionRepository.createPartitionFor(today.plusYears(10));
+        } catch (RuntimeException e) {
+            log.warn("Could not create users partitions", e);
+        }
+    }
+}
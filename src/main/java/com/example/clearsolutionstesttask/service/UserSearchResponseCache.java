@@ -0,0 +1,50 @@
+package com.example.clearsolutionstesttask.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+// Serialized birth-date range search responses, bounded by users.search.responseCache.maxBytes (0 turns it
+// off). The user_changes version the rows were read at is part of the key, so an entry is only served to a
+// request whose own snapshot sees exactly the same users; a put under another version drops everything else.
+@Component
+public class UserSearchResponseCache {
+    private final Cache<Key, byte[]> cache;
+    private volatile String version;
+
+    private record Key(LocalDate from, LocalDate to, String version) {
+    }
+
+    public UserSearchResponseCache(@Value("${users.search.responseCache.maxBytes}") long maxBytes) {
+        cache = maxBytes <= 0 ? null : Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, byte[] body) -> body.length)
+                .recordStats()
+                .build();
+        if (cache != null)
+            CaffeineCacheMetrics.monitor(Metrics.globalRegistry, cache, "users.search.responses");
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    public byte[] get(LocalDate from, LocalDate to, String version) {
+        return cache == null ? null : cache.getIfPresent(new Key(from, to, version));
+    }
+
+    public void put(LocalDate from, LocalDate to, String version, byte[] body) {
+        if (cache == null)
+            return;
+        if (!version.equals(this.version)) {
+            cache.invalidateAll();
+            this.version = version;
+        }
+        cache.put(new Key(from, to, version), body);
+    }
+}
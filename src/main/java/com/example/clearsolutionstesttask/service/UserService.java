@@ -1,16 +1,29 @@
 package com.example.clearsolutionstesttask.service;
 
 import com.example.clearsolutionstesttask.dto.ContactsDto;
+import com.example.clearsolutionstesttask.dto.UserBatchResultDto;
+import com.example.clearsolutionstesttask.dto.UserBulkDeleteDto;
+import com.example.clearsolutionstesttask.dto.UserBulkDeleteResultDto;
 import com.example.clearsolutionstesttask.dto.UserDto;
 import com.example.clearsolutionstesttask.dto.UserIdDto;
+import com.example.clearsolutionstesttask.dto.UserPageDto;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
     UserIdDto createUser(UserDto userDto);
-    void updateContactsInfo(Long userId, ContactsDto contacts);
-    void updateUser(Long userId, UserDto userDto);
+    List<UserBatchResultDto> createUsers(List<UserDto> userDtos);
+    void updateContactsInfo(Long userId, ContactsDto contacts, Long expectedVersion);
+    void updateUser(Long userId, UserDto userDto, Long expectedVersion);
     void deleteUser(Long userId);
-    List<UserDto> searchByBirthDateRange(LocalDate from, LocalDate to);
+    UserBulkDeleteResultDto deleteUsers(UserBulkDeleteDto request);
+    UserDto findUser(Long userId);
+    String findSearchVersion();
+
+    UserPageDto searchByBirthDateRange(LocalDate from, LocalDate to);
+    UserPageDto searchByBirthDateRange(LocalDate from, LocalDate to, Integer limit, String after);
+    void streamByBirthDateRange(LocalDate from, LocalDate to, Consumer<UserDto> consumer);
+    UserPageDto searchByText(String query, Integer limit, String after);
 }
@@ -1,140 +1,454 @@
 package com.example.clearsolutionstesttask.service;
 
 import com.example.clearsolutionstesttask.dto.ContactsDto;
+import com.example.clearsolutionstesttask.dto.UserBatchResultDto;
+import com.example.clearsolutionstesttask.dto.UserBulkDeleteDto;
+import com.example.clearsolutionstesttask.dto.UserBulkDeleteResultDto;
 import com.example.clearsolutionstesttask.dto.UserDto;
 import com.example.clearsolutionstesttask.dto.UserIdDto;
+import com.example.clearsolutionstesttask.dto.UserPageDto;
 import com.example.clearsolutionstesttask.entity.User;
 import com.example.clearsolutionstesttask.exception.BadRequestException;
+import com.example.clearsolutionstesttask.exception.ConstraintViolationTranslator;
 import com.example.clearsolutionstesttask.exception.NotFoundException;
+import com.example.clearsolutionstesttask.exception.PreconditionFailedException;
+import com.example.clearsolutionstesttask.repository.UserBulkDeleteRepository;
+import com.example.clearsolutionstesttask.repository.UserChangeRepository;
 import com.example.clearsolutionstesttask.repository.UserRepository;
+import com.example.clearsolutionstesttask.repository.UserTextSearchRepository;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String CURSOR_SEPARATOR = "_";
+    private static final int MAX_BATCH_SIZE = 5000;
+    private static final int FLUSH_CHUNK_SIZE = 500;
+    private static final int DEFAULT_TEXT_PAGE_SIZE = 20;
+    private static final int MAX_TEXT_PAGE_SIZE = 100;
+    private static final int MIN_QUERY_LENGTH = 3;
+    private static final int MAX_QUERY_LENGTH = 70;
+
     private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final UserValidator userValidator;
+    private final UserTextSearchRepository userTextSearchRepository;
+    private final ContactsWriteBehindBuffer contactsWriteBehindBuffer;
+    private final UserBulkDeleteRepository userBulkDeleteRepository;
+    private final UserCache userCache;
+    private final UserChangeRepository userChangeRepository;
+
+    @Value("${users.search.maxRows}")
+    private Integer maxSearchRows;
+
+    @Value("${users.search.textTimeoutMillis}")
+    private long textSearchTimeoutMillis;
 
-    @Value("${users.minAge}")
-    private Integer minAge;
+    @Value("${users.bulkDelete.chunkSize}")
+    private Integer deleteChunkSize;
+
+    @Value("${users.bulkDelete.chunkTimeoutMillis}")
+    private long deleteChunkTimeoutMillis;
 
     public UserIdDto createUser(UserDto userDto) {
-        String email = userDto.getEmail();
-        String phone = userDto.getPhone();
         LocalDate birthDate = userDto.getBirthDate();
-        validateBirthDate(birthDate);
+        userValidator.validateBirthDate(birthDate);
+
+        User user = User.builder()
+                .firstName(userDto.getFirstName())
+                .lastName(userDto.getLastName())
+                .email(userDto.getEmail())
+                .birthDate(userDto.getBirthDate())
+                .phone(userDto.getPhone())
+                .address(userDto.getAddress())
+                .build();
+        return new UserIdDto(save(user).getId());
+    }
+
+    @Transactional
+    public List<UserBatchResultDto> createUsers(List<UserDto> userDtos) {
+        if (userDtos.isEmpty() || userDtos.size() > MAX_BATCH_SIZE)
+            throw new BadRequestException("Batch size must be between 1 and " + MAX_BATCH_SIZE);
+
+        String[] errors = new String[userDtos.size()];
+        Set<String> emails = new HashSet<>();
+        Set<String> phones = new HashSet<>();
+        for (int i = 0; i < userDtos.size(); i++) {
+            UserDto userDto = userDtos.get(i);
+            errors[i] = userValidator.validationError(userDto);
+            if (errors[i] == null) {
+                emails.add(userDto.getEmail());
+                if (userDto.getPhone() != null)
+                    phones.add(userDto.getPhone());
+            }
+        }
 
-        if (existsUserByEmail(email)) {
-            throw new BadRequestException("The email is already used");
+        Set<String> usedEmails = new HashSet<>();
+        Set<String> usedPhones = new HashSet<>();
+        if (!emails.isEmpty()) {
+            for (UserRepository.UniqueKeys keys : userRepository.findUniqueKeys(emails, phones)) {
+                usedEmails.add(keys.getEmail());
+                if (keys.getPhone() != null)
+                    usedPhones.add(keys.getPhone());
+            }
         }
-        if (existsUserByPhone(phone) && phone != null) {
-            throw new BadRequestException("The phone is already used");
+
+        User[] users = new User[userDtos.size()];
+        List<User> chunk = new ArrayList<>(FLUSH_CHUNK_SIZE);
+        for (int i = 0; i < userDtos.size(); i++) {
+            if (errors[i] != null)
+                continue;
+            UserDto userDto = userDtos.get(i);
+            String phone = userDto.getPhone();
+            if (usedEmails.contains(userDto.getEmail())) {
+                errors[i] = "The email is already used";
+                continue;
+            }
+            if (phone != null && usedPhones.contains(phone)) {
+                errors[i] = "The phone is already used";
+                continue;
+            }
+            usedEmails.add(userDto.getEmail());
+            if (phone != null)
+                usedPhones.add(phone);
+
+            users[i] = User.builder()
+                    .firstName(userDto.getFirstName())
+                    .lastName(userDto.getLastName())
+                    .email(userDto.getEmail())
+                    .birthDate(userDto.getBirthDate())
+                    .phone(phone)
+                    .address(userDto.getAddress())
+                    .build();
+            chunk.add(users[i]);
+            if (chunk.size() == FLUSH_CHUNK_SIZE) {
+                saveChunk(chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty())
+            saveChunk(chunk);
+
+        List<UserBatchResultDto> results = new ArrayList<>(userDtos.size());
+        for (int i = 0; i < userDtos.size(); i++) {
+            Long id = users[i] == null ? null : users[i].getId();
+            results.add(new UserBatchResultDto(i, id, errors[i]));
+        }
+        return results;
+    }
+
+    // writes are not transactional here, so each evict below runs after the repository transaction committed
+    public void updateContactsInfo(Long userId, ContactsDto contacts, Long expectedVersion) {
+        if (expectedVersion == null && contactsWriteBehindBuffer.offer(userId, contacts)) {
+            userCache.evict(userId);
+            return;
+        }
+        supersedePending(userId, expectedVersion);
+
+        String phone = contacts.getPhone();
+        String address = contacts.getAddress();
+        int updated;
+        try {
+            updated = expectedVersion == null
+                    ? userRepository.updateContacts(userId, phone, address)
+                    : userRepository.updateContactsIfVersion(userId, phone, address, expectedVersion);
+        } catch (DataIntegrityViolationException e) {
+            throw ConstraintViolationTranslator.translate(e);
         }
+        requireUpdated(userId, updated, expectedVersion);
+        userCache.evict(userId);
+    }
+
+    public void updateUser(Long userId, UserDto userDto, Long expectedVersion) {
+        LocalDate birthDate = userDto.getBirthDate();
+        userValidator.validateBirthDate(birthDate);
+        supersedePending(userId, expectedVersion);
 
         User user = User.builder()
+                .id(userId)
                 .firstName(userDto.getFirstName())
                 .lastName(userDto.getLastName())
                 .email(userDto.getEmail())
                 .birthDate(userDto.getBirthDate())
                 .phone(userDto.getPhone())
                 .address(userDto.getAddress())
+                .version(expectedVersion)
                 .build();
-        return new UserIdDto(save(user).getId());
+        int updated;
+        try {
+            updated = expectedVersion == null
+                    ? userRepository.updateUser(user)
+                    : userRepository.updateUserIfVersion(user);
+        } catch (DataIntegrityViolationException e) {
+            throw ConstraintViolationTranslator.translate(e);
+        }
+        requireUpdated(userId, updated, expectedVersion);
+        userCache.evict(userId);
     }
 
-    public void updateContactsInfo(Long userId, ContactsDto contacts) {
-        User user = findById(userId);
-        user.setPhone(contacts.getPhone());
-        user.setAddress(contacts.getAddress());
-        save(user);
+    // an unconditional write replaces buffered contacts; a conditional one is checked against the version they made
+    private void supersedePending(Long userId, Long expectedVersion) {
+        if (expectedVersion == null)
+            contactsWriteBehindBuffer.discard(userId);
+        else
+            contactsWriteBehindBuffer.writeThrough(userId);
     }
 
-    public void updateUser(Long userId, UserDto userDto) {
-        User user = findById(userId);
+    // only a failed conditional update pays for the extra query that tells a stale version from a missing user
+    private void requireUpdated(Long userId, int updated, Long expectedVersion) {
+        if (updated > 0)
+            return;
+        if (expectedVersion != null && userRepository.existsById(userId))
+            throw new PreconditionFailedException("The user was modified by another request");
+        throw new NotFoundException("User not found");
+    }
 
-        String email = userDto.getEmail();
-        String phone = userDto.getPhone();
-        LocalDate birthDate = userDto.getBirthDate();
-        validateBirthDate(birthDate);
+    public void deleteUser(Long userId) {
+        contactsWriteBehindBuffer.discard(userId);
+        if (userRepository.deleteUserById(userId) == 0)
+            throw new NotFoundException("User not found");
+        userCache.evict(userId);
+    }
 
-        if (existsUserByEmail(email)) {
-            if (!email.equals(user.getEmail()))
-                throw new BadRequestException("The email is already used");
+    // not transactional: each chunk commits on its own, so a failed chunk keeps what the earlier ones deleted
+    // and the request can simply be repeated
+    public UserBulkDeleteResultDto deleteUsers(UserBulkDeleteDto request) {
+        boolean byIds = request.getIds() != null;
+        boolean byRange = request.getFrom() != null || request.getTo() != null;
+        if (byIds == byRange)
+            throw new BadRequestException("Either `ids` or `from` and `to` must be given");
+        return byIds ? deleteByIds(request.getIds(), request.isDryRun())
+                : deleteInRange(request.getFrom(), request.getTo(), request.isDryRun());
+    }
+
+    private UserBulkDeleteResultDto deleteByIds(List<Long> ids, boolean dryRun) {
+        if (ids.isEmpty() || ids.size() > MAX_BATCH_SIZE)
+            throw new BadRequestException("Ids count must be between 1 and " + MAX_BATCH_SIZE);
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        distinctIds.remove(null);
+        if (distinctIds.isEmpty())
+            throw new BadRequestException("Ids count must be between 1 and " + MAX_BATCH_SIZE);
+
+        if (dryRun) {
+            long found = userBulkDeleteRepository.countByIds(distinctIds);
+            return new UserBulkDeleteResultDto(found, distinctIds.size() - found, true);
         }
+        long deleted = 0;
+        List<Long> chunk = new ArrayList<>(deleteChunkSize);
+        for (Long id : distinctIds) {
+            chunk.add(id);
+            if (chunk.size() == deleteChunkSize) {
+                deleted += deleteChunk(chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty())
+            deleted += deleteChunk(chunk);
+        return new UserBulkDeleteResultDto(deleted, distinctIds.size() - deleted, false);
+    }
+
+    private UserBulkDeleteResultDto deleteInRange(LocalDate from, LocalDate to, boolean dryRun) {
+        if (from == null || to == null)
+            throw new BadRequestException("Both `from` and `to` must be given");
+        validateRange(from, to);
+
+        if (dryRun)
+            return new UserBulkDeleteResultDto(userBulkDeleteRepository.countInRange(from, to), 0L, true);
+        long deleted = 0;
+        List<Long> ids;
+        do {
+            ids = userBulkDeleteRepository.deleteInRange(from, to, deleteChunkSize, deleteChunkTimeoutMillis);
+            evict(ids);
+            deleted += ids.size();
+        } while (ids.size() == deleteChunkSize);
+        return new UserBulkDeleteResultDto(deleted, 0L, false);
+    }
+
+    private int deleteChunk(List<Long> ids) {
+        List<Long> deleted = userBulkDeleteRepository.deleteByIds(ids, deleteChunkTimeoutMillis);
+        evict(deleted);
+        return deleted.size();
+    }
 
-        if (existsUserByPhone(phone) && phone != null) {
-            if (!phone.equals(user.getPhone()))
-                throw new BadRequestException("The phone is already used");
+    private void evict(List<Long> ids) {
+        for (Long id : ids) {
+            contactsWriteBehindBuffer.discard(id);
+            userCache.evict(id);
         }
-        user.setFirstName(userDto.getFirstName());
-        user.setLastName(userDto.getLastName());
-        user.setEmail(userDto.getEmail());
-        user.setBirthDate(userDto.getBirthDate());
-        user.setPhone(userDto.getPhone());
-        user.setAddress(userDto.getAddress());
-        save(user);
     }
 
-    private void validateBirthDate(LocalDate birthDate) {
+    // a user with contacts waiting to be written bypasses the cache and gets them laid over the database row
+    @Transactional(readOnly = true)
+    public UserDto findUser(Long userId) {
+        if (contactsWriteBehindBuffer.isPending(userId))
+            return contactsWriteBehindBuffer.overlay(userId, () -> loadUser(userId));
+        return userCache.get(userId, () -> loadUser(userId));
+    }
 
-        if (birthDate.isAfter(LocalDate.now())) {
-            throw new BadRequestException("Birthday can not be after now");
+    private UserDto loadUser(Long userId) {
+        return userRepository.findDtoById(userId).orElseThrow(() -> new NotFoundException("User not found"));
+    }
+
+    // read from the same place the searches read from, a lagging replica included
+    @Transactional(readOnly = true)
+    public String findSearchVersion() {
+        return userChangeRepository.findVersion();
+    }
+
+    // the transaction timeout becomes the JDBC query timeout, so a runaway search is cancelled in PostgreSQL;
+    // repeatable read makes the rows and their version come from one snapshot
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ, timeoutString = "${users.search.timeoutSeconds}")
+    public UserPageDto searchByBirthDateRange(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+
+        // one row over the budget tells it was exceeded without a count query
+        List<UserDto> users = userRepository.findAllByBirthDateBetween(from, to, PageRequest.ofSize(maxSearchRows + 1));
+        if (users.size() > maxSearchRows) {
+            Metrics.counter("users.admission.rejected", "endpoint", "search", "reason", "rows").increment();
+            throw new BadRequestException("More than " + maxSearchRows + " users in range, use `limit` to page through them");
         }
-        long age = birthDate.until(LocalDate.now(), ChronoUnit.YEARS);
-        if (age < minAge) {
-            throw new BadRequestException("You must be over 18 years old");
+        recordSearchRows("list", users.size());
+        return new UserPageDto(users, null, userChangeRepository.findVersion());
+    }
+
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ, timeoutString = "${users.search.timeoutSeconds}")
+    public UserPageDto searchByBirthDateRange(LocalDate from, LocalDate to, Integer limit, String after) {
+        validateRange(from, to);
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE)
+            throw new BadRequestException("`Limit` must be between 1 and " + MAX_PAGE_SIZE);
+
+        LocalDate afterBirthDate = from;
+        Long afterId = 0L;
+        if (after != null) {
+            String[] cursor = after.split(CURSOR_SEPARATOR);
+            try {
+                afterBirthDate = LocalDate.parse(cursor[0]);
+                afterId = Long.valueOf(cursor[1]);
+            } catch (DateTimeParseException | NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new BadRequestException("Invalid `After` cursor");
+            }
         }
 
+        // one extra row tells whether there is a next page without a count query
+        List<UserDto> users = userRepository.findPageByBirthDateBetween(
+                from, to, afterBirthDate, afterId, PageRequest.ofSize(pageSize + 1));
+        String nextCursor = null;
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            UserDto last = users.get(pageSize - 1);
+            nextCursor = last.getBirthDate() + CURSOR_SEPARATOR + last.getId();
+        }
+        recordSearchRows("page", users.size());
+        return new UserPageDto(users, nextCursor, userChangeRepository.findVersion());
     }
 
-    public void deleteUser(Long userId) {
-        User user = findById(userId);
-        delete(user);
+    @Transactional(readOnly = true)
+    public void streamByBirthDateRange(LocalDate from, LocalDate to, Consumer<UserDto> consumer) {
+        validateRange(from, to);
+
+        long[] rows = new long[1];
+        try (Stream<UserDto> users = userRepository.streamAllByBirthDateBetween(from, to)) {
+            users.forEach(user -> {
+                consumer.accept(user);
+                rows[0]++;
+            });
+        }
+        recordSearchRows("stream", rows[0]);
     }
 
-    public List<UserDto> searchByBirthDateRange(LocalDate from, LocalDate to) {
-        if (from.isAfter(to))
-            throw new BadRequestException("`From` must be less than `To`");
+    @Transactional(readOnly = true)
+    public UserPageDto searchByText(String query, Integer limit, String after) {
+        String text = query == null ? "" : query.trim();
+        if (text.length() < MIN_QUERY_LENGTH || text.length() > MAX_QUERY_LENGTH)
+            throw new BadRequestException("`Q` must be between " + MIN_QUERY_LENGTH + " and " + MAX_QUERY_LENGTH + " characters");
+        int pageSize = limit == null ? DEFAULT_TEXT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_TEXT_PAGE_SIZE)
+            throw new BadRequestException("`Limit` must be between 1 and " + MAX_TEXT_PAGE_SIZE);
+
+        // scores never exceed 1, so the first page starts above any of them
+        float afterScore = 2f;
+        long afterId = 0L;
+        if (after != null) {
+            String[] cursor = after.split(CURSOR_SEPARATOR);
+            try {
+                afterScore = Float.parseFloat(cursor[0]);
+                afterId = Long.parseLong(cursor[1]);
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new BadRequestException("Invalid `After` cursor");
+            }
+        }
 
-        return userRepository.findAllByBirthDateBetween(from, to).stream()
-                .map(user -> UserDto.builder()
-                        .email(user.getEmail())
-                        .firstName(user.getFirstName())
-                        .lastName(user.getLastName())
-                        .birthDate(user.getBirthDate())
-                        .phone(user.getPhone())
-                        .address(user.getAddress())
-                        .build())
-                .toList();
+        List<UserTextSearchRepository.Match> matches = userTextSearchRepository.search(
+                text, afterScore, afterId, pageSize + 1, textSearchTimeoutMillis);
+        String nextCursor = null;
+        if (matches.size() > pageSize) {
+            matches = matches.subList(0, pageSize);
+            UserTextSearchRepository.Match last = matches.get(pageSize - 1);
+            nextCursor = last.score() + CURSOR_SEPARATOR + last.user().getId();
+        }
+        List<UserDto> users = new ArrayList<>(matches.size());
+        for (UserTextSearchRepository.Match match : matches)
+            users.add(match.user());
+        recordSearchRows("text", users.size());
+        return new UserPageDto(users, nextCursor);
     }
 
-    private User findById(Long id) {
-        return userRepository.findById(id).orElseThrow(() -> new NotFoundException("User not found"));
+    private void recordSearchRows(String mode, long rows) {
+        Metrics.summary("users.search.rows", "mode", mode).record(rows);
     }
 
-    private User save(User user) {
-        return userRepository.save(user);
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to))
+            throw new BadRequestException("`From` must be less than `To`");
     }
 
-    private void delete(User user) {
-        userRepository.delete(user);
+    private User save(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw ConstraintViolationTranslator.translate(e);
+        }
     }
 
-    private Boolean existsUserByPhone(String phone) {
-        return userRepository.existsUserByPhone(phone);
+    // ids come from the pooled sequence on persist, so the flush below goes out as one JDBC batch
+    private void saveChunk(List<User> users) {
+        try {
+            userRepository.saveAll(users);
+            userRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw ConstraintViolationTranslator.translate(e);
+        }
+        entityManager.clear();
     }
 
-    private Boolean existsUserByEmail(String email) {
-        return userRepository.existsUserByEmail(email);
+    //for testing
+    public void setMaxSearchRows(Integer maxSearchRows) {
+        this.maxSearchRows = maxSearchRows;
     }
 
     //for testing
-    public void setMinAge(Integer minAge) {
-        this.minAge = minAge;
+    public void setDeleteChunkSize(Integer deleteChunkSize) {
+        this.deleteChunkSize = deleteChunkSize;
     }
 }
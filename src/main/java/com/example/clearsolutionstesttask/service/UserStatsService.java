@@ -0,0 +1,7 @@
+package com.example.clearsolutionstesttask.service;
+
+import com.example.clearsolutionstesttask.dto.UserStatsDto;
+
+public interface UserStatsService {
+    UserStatsDto getStats();
+}
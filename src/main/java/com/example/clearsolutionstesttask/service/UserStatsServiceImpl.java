@@ -0,0 +1,60 @@
+package com.example.clearsolutionstesttask.service;
+
+import com.example.clearsolutionstesttask.dto.UserStatsDto;
+import com.example.clearsolutionstesttask.repository.UserStatsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class UserStatsServiceImpl implements UserStatsService {
+    private final UserStatsRepository userStatsRepository;
+
+    @Value("${users.minAge}")
+    private Integer minAge;
+
+    @Value("${users.stats.ageBucketYears}")
+    private Integer ageBucketYears;
+
+    @Transactional(readOnly = true)
+    public UserStatsDto getStats() {
+        Map<YearMonth, Long> monthCounts = userStatsRepository.countByMonth();
+        Map<Integer, Long> ageCounts = userStatsRepository.countByAge(LocalDate.now());
+
+        long total = 0;
+        Map<Integer, Long> byYear = new LinkedHashMap<>();
+        Map<String, Long> byMonth = new LinkedHashMap<>();
+        for (Map.Entry<YearMonth, Long> entry : monthCounts.entrySet()) {
+            total += entry.getValue();
+            byYear.merge(entry.getKey().getYear(), entry.getValue(), Long::sum);
+            byMonth.put(entry.getKey().toString(), entry.getValue());
+        }
+
+        Map<String, Long> byAge = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Long> entry : ageCounts.entrySet())
+            byAge.merge(ageBucket(entry.getKey()), entry.getValue(), Long::sum);
+
+        return new UserStatsDto(total, byYear, byMonth, byAge);
+    }
+
+    // buckets start at minAge: with minAge 18 and 10-year buckets, 18-27, 28-37, ...
+    private String ageBucket(int age) {
+        if (age < minAge)
+            return "under " + minAge;
+        int lower = minAge + (age - minAge) / ageBucketYears * ageBucketYears;
+        return lower + "-" + (lower + ageBucketYears - 1);
+    }
+
+    //for testing
+    public void setAgeBuckets(Integer minAge, Integer ageBucketYears) {
+        this.minAge = minAge;
+        this.ageBucketYears = ageBucketYears;
+    }
+}
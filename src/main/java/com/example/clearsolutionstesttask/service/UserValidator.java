@@ -0,0 +1,79 @@
+package com.example.clearsolutionstesttask.service;
+
+import com.example.clearsolutionstesttask.dto.UserDto;
+import com.example.clearsolutionstesttask.dto.UserDtoViolation;
+import com.example.clearsolutionstesttask.exception.BadRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+@Component
+public class UserValidator {
+    private static final int MAX_NAME_LENGTH = 20;
+    private static final int MAX_EMAIL_LENGTH = 70;
+    private static final int MAX_ADDRESS_LENGTH = 50;
+    private static final int MAX_PHONE_LENGTH = 30;
+
+    @Value("${users.minAge}")
+    private Integer minAge;
+
+    private volatile BirthDateCutoff cutoff;
+
+    // today and the latest birth date that is old enough, recomputed when the date changes
+    private record BirthDateCutoff(LocalDate today, LocalDate latestBirthDate, long validUntilMillis) {
+    }
+
+    // for payloads that bypass @Valid (batch create, import); null means the user is valid
+    public String validationError(UserDto userDto) {
+        if (userDto == null)
+            return "User can not be null";
+        UserDtoViolation violation = UserDtoViolation.of(userDto);
+        if (violation != null)
+            return violation.getMessage();
+        if (tooLong(userDto.getFirstName(), MAX_NAME_LENGTH) || tooLong(userDto.getLastName(), MAX_NAME_LENGTH)
+                || tooLong(userDto.getEmail(), MAX_EMAIL_LENGTH) || tooLong(userDto.getAddress(), MAX_ADDRESS_LENGTH)
+                || tooLong(userDto.getPhone(), MAX_PHONE_LENGTH))
+            return "Value is too long";
+        return birthDateError(userDto.getBirthDate());
+    }
+
+    public void validateBirthDate(LocalDate birthDate) {
+        String error = birthDateError(birthDate);
+        if (error != null)
+            throw new BadRequestException(error);
+    }
+
+    private String birthDateError(LocalDate birthDate) {
+        BirthDateCutoff current = currentCutoff();
+        if (birthDate.isAfter(current.today()))
+            return "Birthday can not be after now";
+        // same as birthDate.until(today, YEARS) < minAge, Feb 29 included
+        if (birthDate.isAfter(current.latestBirthDate()))
+            return "You must be over 18 years old";
+        return null;
+    }
+
+    private BirthDateCutoff currentCutoff() {
+        BirthDateCutoff current = cutoff;
+        if (current == null || System.currentTimeMillis() >= current.validUntilMillis()) {
+            ZoneId zone = ZoneId.systemDefault();
+            LocalDate today = LocalDate.now(zone);
+            long midnight = today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+            current = new BirthDateCutoff(today, today.minusYears(minAge), midnight);
+            cutoff = current;
+        }
+        return current;
+    }
+
+    private boolean tooLong(String value, int maxLength) {
+        return value != null && value.length() > maxLength;
+    }
+
+    //for testing
+    public void setMinAge(Integer minAge) {
+        this.minAge = minAge;
+        this.cutoff = null;
+    }
+}
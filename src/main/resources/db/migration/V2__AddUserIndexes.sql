@@ -0,0 +1,5 @@
+create unique index ux_users_email on users (email);
+
+create unique index ux_users_phone on users (phone) where phone is not null;
+
+create index ix_users_birth_date_id on users (birth_date, id);
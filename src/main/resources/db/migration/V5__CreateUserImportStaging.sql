@@ -0,0 +1,16 @@
+create unlogged table users_import_staging
+(
+    job_id        uuid   not null,
+    line_number   bigint not null,
+    first_name    varchar(20),
+    last_name     varchar(20),
+    email         varchar(70),
+    birth_date    date,
+    address       varchar(50),
+    phone         varchar(30),
+    reject_reason varchar(50)
+);
+
+create index ix_users_import_staging_email on users_import_staging (job_id, email);
+
+create index ix_users_import_staging_phone on users_import_staging (job_id, phone);
@@ -0,0 +1,84 @@
+alter table users rename to users_unpartitioned;
+
+alter sequence users_id_seq owned by none;
+
+create table users
+(
+    id         bigint      not null default nextval('users_id_seq'),
+    first_name varchar(20) not null,
+    last_name  varchar(20) not null,
+    email      varchar(70) not null,
+    birth_date date        not null,
+    address    varchar(50),
+    phone      varchar(30),
+    version    bigint      not null default 0,
+    primary key (id, birth_date)
+) partition by range (birth_date);
+
+create table users_default partition of users default;
+
+-- one partition per decade, e.g. users_p1990 holds 1990-01-01 .. 1999-12-31
+create function create_users_partition(for_date date) returns void
+    language plpgsql as
+$$
+declare
+    decade_start date := make_date(extract(year from for_date)::int / 10 * 10, 1, 1);
+begin
+    execute format('create table if not exists %I partition of users for values from (%L) to (%L)',
+                   'users_p' || extract(year from decade_start), decade_start,
+                   (decade_start + interval '10 years')::date);
+end;
+$$;
+
+select create_users_partition(make_date(decade, 1, 1))
+from generate_series(1900, 2030, 10) as decade;
+
+insert into users (id, first_name, last_name, email, birth_date, address, phone, version)
+select id, first_name, last_name, email, birth_date, address, phone, version
+from users_unpartitioned;
+
+drop table users_unpartitioned;
+
+alter sequence users_id_seq owned by users.id;
+
+create index ix_users_birth_date_id on users (birth_date, id);
+
+-- a partitioned table can only enforce uniqueness on keys that include birth_date,
+-- so email and phone are kept unique in a global side table maintained by trigger
+create table user_identities
+(
+    user_id bigint primary key,
+    email   varchar(70) not null,
+    phone   varchar(30)
+);
+
+insert into user_identities (user_id, email, phone)
+select id, email, phone
+from users;
+
+create unique index ux_users_email on user_identities (email);
+
+create unique index ux_users_phone on user_identities (phone) where phone is not null;
+
+create function sync_user_identity() returns trigger
+    language plpgsql as
+$$
+begin
+    if tg_op = 'INSERT' then
+        insert into user_identities (user_id, email, phone) values (new.id, new.email, new.phone);
+    elsif tg_op = 'UPDATE' then
+        if new.email is distinct from old.email or new.phone is distinct from old.phone then
+            update user_identities set email = new.email, phone = new.phone where user_id = old.id;
+        end if;
+    else
+        delete from user_identities where user_id = old.id;
+    end if;
+    return null;
+end;
+$$;
+
+create trigger users_sync_identity
+    after insert or update or delete
+    on users
+    for each row
+execute function sync_user_identity();
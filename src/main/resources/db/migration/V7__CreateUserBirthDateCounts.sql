@@ -0,0 +1,61 @@
+create table user_birth_date_counts
+(
+    birth_date date   primary key,
+    users      bigint not null
+);
+
+insert into user_birth_date_counts (birth_date, users)
+select birth_date, count(*)
+from users
+group by birth_date;
+
+-- statement-level, so a batched insert or an import merge touches each birth date once;
+-- birth dates are upserted in order so concurrent writers lock the counter rows in the same order
+create function count_users_by_birth_date() returns trigger
+    language plpgsql as
+$$
+begin
+    if tg_op = 'INSERT' then
+        insert into user_birth_date_counts (birth_date, users)
+        select birth_date, count(*) from new_rows group by birth_date order by birth_date
+        on conflict (birth_date) do update set users = user_birth_date_counts.users + excluded.users;
+    elsif tg_op = 'UPDATE' then
+        insert into user_birth_date_counts (birth_date, users)
+        select birth_date, sum(delta)
+        from (select birth_date, 1 as delta from new_rows
+              union all
+              select birth_date, -1 from old_rows) changes
+        group by birth_date
+        having sum(delta) <> 0
+        order by birth_date
+        on conflict (birth_date) do update set users = user_birth_date_counts.users + excluded.users;
+    else
+        update user_birth_date_counts c
+        set users = c.users - d.users
+        from (select birth_date, count(*) as users from old_rows group by birth_date) d
+        where c.birth_date = d.birth_date;
+    end if;
+    return null;
+end;
+$$;
+
+create trigger users_count_inserted
+    after insert
+    on users
+    referencing new table as new_rows
+    for each statement
+execute function count_users_by_birth_date();
+
+create trigger users_count_updated
+    after update
+    on users
+    referencing old table as old_rows new table as new_rows
+    for each statement
+execute function count_users_by_birth_date();
+
+create trigger users_count_deleted
+    after delete
+    on users
+    referencing old table as old_rows
+    for each statement
+execute function count_users_by_birth_date();
@@ -0,0 +1,7 @@
+create extension if not exists pg_trgm;
+
+create index ix_users_first_name_trgm on users using gin (first_name gin_trgm_ops);
+
+create index ix_users_last_name_trgm on users using gin (last_name gin_trgm_ops);
+
+create index ix_users_email_trgm on users using gin (email gin_trgm_ops);
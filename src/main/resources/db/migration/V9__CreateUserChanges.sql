@@ -0,0 +1,48 @@
+-- transactional outbox for the change feed. tx is the writing transaction's id: once every transaction
+-- older than the oldest running one has finished, rows below that point can no longer appear, so
+-- (tx, id) is an offset a consumer can resume from without missing late commits.
+create table user_changes
+(
+    tx         bigint      not null default pg_current_xact_id()::text::bigint,
+    id         bigserial,
+    user_id    bigint      not null,
+    type       varchar(7)  not null,
+    changed_at timestamptz not null default now(),
+    primary key (tx, id)
+);
+
+create function record_user_changes() returns trigger
+    language plpgsql as
+$$
+begin
+    if tg_op = 'INSERT' then
+        insert into user_changes (user_id, type) select id, 'CREATED' from new_rows order by id;
+    elsif tg_op = 'UPDATE' then
+        insert into user_changes (user_id, type) select id, 'UPDATED' from new_rows order by id;
+    else
+        insert into user_changes (user_id, type) select id, 'DELETED' from old_rows order by id;
+    end if;
+    return null;
+end;
+$$;
+
+create trigger users_changes_inserted
+    after insert
+    on users
+    referencing new table as new_rows
+    for each statement
+execute function record_user_changes();
+
+create trigger users_changes_updated
+    after update
+    on users
+    referencing new table as new_rows
+    for each statement
+execute function record_user_changes();
+
+create trigger users_changes_deleted
+    after delete
+    on users
+    referencing old table as old_rows
+    for each statement
+execute function record_user_changes();
@@ -0,0 +1,64 @@
+package com.example.clearsolutionstesttask.config;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+// two embedded PostgreSQL instances stand in for the primary and the replica, told apart by their port
+class ReplicaRoutingDataSourceTest {
+    private EmbeddedPostgres primary;
+    private EmbeddedPostgres replica;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        primary = EmbeddedPostgres.builder().start();
+        replica = EmbeddedPostgres.builder().start();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(
+                primary.getPostgresDatabase(), replica.getPostgresDatabase(), 60_000));
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        primary.close();
+        if (replica != null)
+            replica.close();
+    }
+
+    @Test
+    void shouldRouteReadOnlyTransactionsToReplica() {
+        assertThat(serverPort(true)).isEqualTo(replica.getPort());
+    }
+
+    @Test
+    void shouldRouteReadWriteTransactionsToPrimary() {
+        assertThat(serverPort(false)).isEqualTo(primary.getPort());
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenReplicaIsDown() throws IOException {
+        replica.close();
+        replica = null;
+
+        assertThat(serverPort(true)).isEqualTo(primary.getPort());
+    }
+
+    private int serverPort(boolean readOnly) {
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                jdbcTemplate.queryForObject("select current_setting('port')::int", Integer.class));
+    }
+}
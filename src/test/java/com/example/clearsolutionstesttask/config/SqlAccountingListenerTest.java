@@ -0,0 +1,50 @@
+package com.example.clearsolutionstesttask.config;
+
+import com.example.clearsolutionstesttask.filter.SqlStatistics;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlAccountingListenerTest {
+    private final SqlAccountingListener listener = new SqlAccountingListener(500);
+
+    @AfterEach
+    void tearDown() {
+        SqlStatistics.stop();
+    }
+
+    @Test
+    void shouldCountRowsAffectedByUpdatesAndBatches() {
+        SqlStatistics statistics = SqlStatistics.start();
+
+        execute(1);
+        execute(new int[]{1, 1, 0});
+        execute(null);
+
+        assertThat(statistics.getStatements()).isEqualTo(3);
+        assertThat(statistics.getRowsAffected()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldMaskStringLiterals() {
+        assertThat(SqlAccountingListener.redact("select * from users where email = 'o''hara@gmail.com' and id = ?"))
+                .isEqualTo("select * from users where email = '?' and id = ?");
+    }
+
+    @Test
+    void shouldKeepSqlWithoutLiterals() {
+        String sql = "update users set phone = ?, address = ? where id = ?";
+        assertThat(SqlAccountingListener.redact(sql)).isEqualTo(sql);
+    }
+
+    private void execute(Object result) {
+        ExecutionInfo execInfo = new ExecutionInfo();
+        listener.beforeQuery(execInfo, List.of());
+        execInfo.setResult(result);
+        listener.afterQuery(execInfo, List.of());
+    }
+}
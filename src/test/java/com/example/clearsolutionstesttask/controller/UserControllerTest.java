@@ -1,7 +1,11 @@
 package com.example.clearsolutionstesttask.controller;
 
 import com.example.clearsolutionstesttask.dto.ContactsDto;
+import com.example.clearsolutionstesttask.dto.UserBatchResultDto;
+import com.example.clearsolutionstesttask.dto.UserBulkDeleteResultDto;
 import com.example.clearsolutionstesttask.dto.UserDto;
+import com.example.clearsolutionstesttask.dto.UserPageDto;
+import com.example.clearsolutionstesttask.service.UserSearchResponseCache;
 import com.example.clearsolutionstesttask.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +15,7 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
@@ -20,8 +25,11 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -33,6 +41,8 @@ class UserControllerTest {
     private MockMvc mvc;
     @MockBean
     private UserService service;
+    @MockBean
+    private UserSearchResponseCache userSearchResponseCache;
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -45,6 +55,18 @@ class UserControllerTest {
                 .birthDate(LocalDate.of(2005, 11, 6))
                 .phone("+380971694636")
                 .build();
+        when(service.findSearchVersion()).thenReturn("7_1-");
+    }
+
+    @Test
+    public void shouldGetUser() throws Exception {
+        userDto.setVersion(3L);
+        when(service.findUser(1L)).thenReturn(userDto);
+
+        mvc.perform(get("/api/v1/testTask/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.email", is(userDto.getEmail())));
     }
 
     @Test
@@ -52,17 +74,53 @@ class UserControllerTest {
 
         List<UserDto> users = List.of(userDto);
 
-        when(service.searchByBirthDateRange(Mockito.any(), Mockito.any())).thenReturn(users);
+        when(service.searchByBirthDateRange(Mockito.any(), Mockito.any())).thenReturn(new UserPageDto(users, null, "7_2-"));
 
         mvc.perform(get("/api/v1/testTask/users/searchByBirthDateRange")
                         .param("from", LocalDate.of(2004, 11, 6).toString())
                         .param("to", LocalDate.of(2006, 11, 6).toString())
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"7_2-\""))
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].firstName", is(userDto.getFirstName())));
     }
 
+    @Test
+    public void shouldNotSearchWhenTableIsUnchanged() throws Exception {
+        mvc.perform(get("/api/v1/testTask/users/searchByBirthDateRange")
+                        .param("from", LocalDate.of(2004, 11, 6).toString())
+                        .param("to", LocalDate.of(2006, 11, 6).toString())
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"7_1-\""))
+                .andExpect(status().isNotModified());
+        verify(service, never()).searchByBirthDateRange(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void shouldSearchPageByBirthDateRange() throws Exception {
+
+        when(service.searchByBirthDateRange(Mockito.any(), Mockito.any(), Mockito.eq(1), Mockito.isNull()))
+                .thenReturn(new UserPageDto(List.of(userDto), "2005-11-06_1", "7_1-"));
+
+        mvc.perform(get("/api/v1/testTask/users/searchByBirthDateRange")
+                        .param("from", LocalDate.of(2004, 11, 6).toString())
+                        .param("to", LocalDate.of(2006, 11, 6).toString())
+                        .param("limit", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(UserController.NEXT_CURSOR_HEADER, "2005-11-06_1"))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    public void shouldThrowWhenToIsLessThanFromWhileStreaming() throws Exception {
+
+        mvc.perform(get("/api/v1/testTask/users/searchByBirthDateRange/stream")
+                        .param("from", LocalDate.of(2006, 11, 6).toString())
+                        .param("to", LocalDate.of(2004, 11, 6).toString()))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void shouldThrowWhenToIsLessThanFrom() throws Exception {
 
@@ -90,6 +148,31 @@ class UserControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    public void shouldCreateUsersInBatch() throws Exception {
+        when(service.createUsers(Mockito.any()))
+                .thenReturn(List.of(new UserBatchResultDto(0, 1L, null)));
+
+        mvc.perform(post("/api/v1/testTask/users/batch")
+                        .content(objectMapper.writeValueAsString(List.of(userDto)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(1)));
+    }
+
+    @Test
+    public void shouldDeleteUsersInBulk() throws Exception {
+        when(service.deleteUsers(Mockito.any()))
+                .thenReturn(new UserBulkDeleteResultDto(2L, 1L, false));
+
+        mvc.perform(post("/api/v1/testTask/users/bulkDelete")
+                        .content("{\"ids\":[1,2,3]}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted", is(2)))
+                .andExpect(jsonPath("$.notFound", is(1)));
+    }
+
     @Test
     public void shouldThrowWhenDtoIsNotValidWhileUpdating() throws Exception {
         userDto.setFirstName(null);
@@ -116,6 +199,27 @@ class UserControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    public void shouldPassIfMatchVersionWhenUpdatingContacts() throws Exception {
+        mvc.perform(patch("/api/v1/testTask/users/1")
+                        .header("If-Match", "\"3\"")
+                        .content(objectMapper.writeValueAsString
+                                (new ContactsDto(null, "Lviv")))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        Mockito.verify(service).updateContactsInfo(1L, new ContactsDto(null, "Lviv"), 3L);
+    }
+
+    @Test
+    public void shouldThrowWhenIfMatchIsInvalid() throws Exception {
+        mvc.perform(patch("/api/v1/testTask/users/1")
+                        .header("If-Match", "\"abc\"")
+                        .content(objectMapper.writeValueAsString
+                                (new ContactsDto(null, "Lviv")))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void shouldDeleteUser() throws Exception {
         mvc.perform(delete("/api/v1/testTask/users/1")
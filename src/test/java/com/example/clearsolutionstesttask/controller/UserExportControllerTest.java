@@ -0,0 +1,79 @@
+package com.example.clearsolutionstesttask.controller;
+
+import com.example.clearsolutionstesttask.service.ExportFormat;
+import com.example.clearsolutionstesttask.service.UserExportService;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@WebMvcTest(UserExportController.class)
+class UserExportControllerTest {
+    @Autowired
+    private MockMvc mvc;
+    @MockBean
+    private UserExportService service;
+
+    @Test
+    public void shouldStreamCsvExport() throws Exception {
+        doAnswer(invocation -> {
+            invocation.getArgument(3, OutputStream.class).write("id,email\n1,andrii@gmail.com\n".getBytes());
+            return null;
+        }).when(service).export(isNull(), eq(LocalDate.of(2005, 1, 1)), eq(ExportFormat.CSV), any());
+
+        MvcResult result = mvc.perform(get("/api/v1/testTask/users/export")
+                        .param("to", "2005-01-01"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(content().string("id,email\n1,andrii@gmail.com\n"));
+    }
+
+    @Test
+    public void shouldSetContentEncodingWhenGzipped() throws Exception {
+        mvc.perform(get("/api/v1/testTask/users/export")
+                        .param("format", "ndjson")
+                        .param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("Content-Encoding", "gzip"));
+    }
+
+    @Test
+    public void shouldThrowWhenFormatIsUnknown() throws Exception {
+        mvc.perform(get("/api/v1/testTask/users/export")
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    public void shouldThrowWhenToIsLessThanFrom() throws Exception {
+        mvc.perform(get("/api/v1/testTask/users/export")
+                        .param("from", "2006-11-06")
+                        .param("to", "2004-11-06"))
+                .andExpect(status().isBadRequest());
+    }
+}
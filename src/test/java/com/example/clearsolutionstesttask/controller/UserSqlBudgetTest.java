@@ -0,0 +1,84 @@
+package com.example.clearsolutionstesttask.controller;
+
+import com.example.clearsolutionstesttask.filter.SqlAccountingFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.example.clearsolutionstesttask.filter.SqlBudget.statementsAtMost;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureEmbeddedDatabase(type = AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES,
+        provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+class UserSqlBudgetTest {
+    private static final String USERS = "/api/v1/testTask/users";
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    private long userId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String response = mvc.perform(post(USERS)
+                        .content(user("Andrii"))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        userId = objectMapper.readTree(response).get("id").asLong();
+    }
+
+    private static String user(String firstName) {
+        long n = ThreadLocalRandom.current().nextLong(1_000_000_000L);
+        return "{\"firstName\":\"" + firstName + "\",\"lastName\":\"Snovyda\",\"email\":\"andrii" + n + "@gmail.com\"," +
+                "\"birthDate\":\"1990-11-06\",\"phone\":\"+38" + String.format("%010d", n) + "\"}";
+    }
+
+    @Test
+    void shouldUpdateUserWithOneStatement() throws Exception {
+        mvc.perform(put(USERS + "/" + userId)
+                        .content(user("Andriy"))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(1))
+                .andExpect(header().string(SqlAccountingFilter.ROWS_AFFECTED_HEADER, "1"));
+    }
+
+    @Test
+    void shouldPatchContactsWithOneStatement() throws Exception {
+        mvc.perform(patch(USERS + "/" + userId)
+                        .content("{\"address\":\"Kyiv\"}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(1));
+    }
+
+    @Test
+    void shouldServeRepeatedGetFromCache() throws Exception {
+        mvc.perform(get(USERS + "/" + userId))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(1));
+        mvc.perform(get(USERS + "/" + userId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SqlAccountingFilter.STATEMENTS_HEADER, "0"));
+    }
+
+    @Test
+    void shouldDeleteUserWithOneStatement() throws Exception {
+        mvc.perform(delete(USERS + "/" + userId))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(1));
+    }
+}
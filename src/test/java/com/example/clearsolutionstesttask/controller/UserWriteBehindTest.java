@@ -0,0 +1,91 @@
+package com.example.clearsolutionstesttask.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// the flush interval is long enough that the buffered PATCH is only written by the conditional PUT
+@SpringBootTest(properties = {
+        "users.contacts.writeBehind.enabled=true",
+        "users.contacts.writeBehind.flushMillis=3600000"})
+@AutoConfigureMockMvc
+@AutoConfigureEmbeddedDatabase(type = AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES,
+        provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+class UserWriteBehindTest {
+    private static final String USERS = "/api/v1/testTask/users";
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    private final String email = "andrii" + System.nanoTime() + "@gmail.com";
+
+    @Test
+    void shouldRejectConditionalPutOlderThanBufferedPatch() throws Exception {
+        long userId = create();
+        String eTag = mvc.perform(get(USERS + "/" + userId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(patch(USERS + "/" + userId)
+                        .content("{\"phone\":\"+380000000002\",\"address\":\"Kyiv\"}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        mvc.perform(put(USERS + "/" + userId)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .content(user("+380000000003"))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isPreconditionFailed());
+
+        mvc.perform(get(USERS + "/" + userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.phone").value("+380000000002"))
+                .andExpect(jsonPath("$.address").value("Kyiv"));
+    }
+
+    @Test
+    void shouldAcceptConditionalPutWithETagOfBufferedPatch() throws Exception {
+        long userId = create();
+        mvc.perform(patch(USERS + "/" + userId)
+                        .content("{\"phone\":\"+380000000002\",\"address\":\"Kyiv\"}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        String eTag = mvc.perform(get(USERS + "/" + userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.phone").value("+380000000002"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(put(USERS + "/" + userId)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .content(user("+380000000003"))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        mvc.perform(get(USERS + "/" + userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.phone").value("+380000000003"));
+    }
+
+    private long create() throws Exception {
+        String created = mvc.perform(post(USERS)
+                        .content(user("+380000000001"))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(created).get("id").asLong();
+    }
+
+    private String user(String phone) {
+        return "{\"firstName\":\"Andrii\",\"lastName\":\"Snovyda\",\"email\":\"" + email + "\"," +
+                "\"birthDate\":\"1990-11-06\",\"phone\":\"" + phone + "\"}";
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.clearsolutionstesttask.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+class UserDtoSerializerTest {
+    private final UserDto user = new UserDto(7L, "andrii@gmail.com", "Andrii", "Snovyda",
+            LocalDate.of(2005, 11, 6), "+380971694636", "Lviv \"center\"", 3L);
+
+    @JsonSerialize(using = JsonSerializer.None.class)
+    private interface ReflectiveUserDto {
+    }
+
+    @Test
+    void shouldWriteSameJsonAsBeanSerializer() throws Exception {
+        assertSameJson(bootDefaults(), user);
+    }
+
+    @Test
+    void shouldWriteNullsAsBeanSerializer() throws Exception {
+        assertSameJson(bootDefaults(), UserDto.builder().email("andrii@gmail.com").build());
+    }
+
+    @Test
+    void shouldWriteDatesAsTimestampsWhenEnabled() throws Exception {
+        assertSameJson(Jackson2ObjectMapperBuilder.json(), user);
+    }
+
+    @Test
+    void shouldSkipNullsWhenExcluded() throws Exception {
+        UserDto partial = UserDto.builder().email("andrii@gmail.com").address("").build();
+
+        assertSameJson(bootDefaults().serializationInclusion(JsonInclude.Include.NON_NULL), partial);
+        assertSameJson(bootDefaults().serializationInclusion(JsonInclude.Include.NON_EMPTY), partial);
+    }
+
+    @Test
+    void shouldFormatDatesOutsideCachedRange() {
+        assertThat(BirthDateFormat.format(LocalDate.of(1850, 2, 3))).isEqualTo("1850-02-03");
+        assertThat(BirthDateFormat.format(LocalDate.of(1990, 5, 17))).isEqualTo("1990-05-17");
+    }
+
+    // Spring Boot's JacksonAutoConfiguration turns timestamps off for the mapper the controllers use
+    private static Jackson2ObjectMapperBuilder bootDefaults() {
+        return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static void assertSameJson(Jackson2ObjectMapperBuilder builder, UserDto user) throws Exception {
+        ObjectMapper objectMapper = builder.build();
+        ObjectMapper reflectiveObjectMapper = builder.mixIn(UserDto.class, ReflectiveUserDto.class).build();
+
+        assertThat(objectMapper.writeValueAsString(user)).isEqualTo(reflectiveObjectMapper.writeValueAsString(user));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.clearsolutionstesttask.dto;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+class UserDtoViolationTest {
+    private UserDto userDto;
+
+    @BeforeEach
+    void setUp() {
+        userDto = UserDto.builder()
+                .firstName("Andrii")
+                .lastName("Snovyda")
+                .email("andrii@gmail.com")
+                .birthDate(LocalDate.of(2005, 11, 6))
+                .build();
+    }
+
+    @Test
+    void shouldAcceptValidUser() {
+        assertThat(UserDtoViolation.of(userDto)).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"andrii@gmail.com", "a.b+tag@mail.example.co", "o'neil@x-y.ua"})
+    void shouldAcceptEmail(String email) {
+        userDto.setEmail(email);
+        assertThat(UserDtoViolation.of(userDto)).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"andrii.gmail.com", "andrii@gmail", "@gmail.com", "andrii@.com", "andrii@gmail.",
+            "a..b@gmail.com", ".a@gmail.com", "a@b@gmail.com", "an drii@gmail.com", "andrii@-gmail.com"})
+    void shouldRejectEmail(String email) {
+        userDto.setEmail(email);
+        assertThat(UserDtoViolation.of(userDto)).isEqualTo(UserDtoViolation.EMAIL_FORMAT);
+    }
+
+    @Test
+    void shouldRejectBlankFields() {
+        userDto.setLastName(" \t");
+        assertThat(UserDtoViolation.of(userDto)).isEqualTo(UserDtoViolation.LAST_NAME_BLANK);
+
+        userDto.setEmail(null);
+        assertThat(UserDtoViolation.of(userDto).getMessage()).isEqualTo("Email can not be blank");
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.clearsolutionstesttask.filter;
+
+import com.example.clearsolutionstesttask.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+class AdmissionControlInterceptorTest {
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void shouldShareTransferLimitBetweenEndpoints() throws Exception {
+        AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(1);
+        MockHttpServletRequest stream = new MockHttpServletRequest();
+
+        assertThat(interceptor.preHandle(stream, response, handler("stream"))).isTrue();
+        assertThatThrownBy(() -> interceptor.preHandle(new MockHttpServletRequest(), response, handler("export")))
+                .isInstanceOf(TooManyRequestsException.class)
+                .hasMessage("Too many concurrent export requests");
+
+        interceptor.afterCompletion(stream, response, handler("stream"), null);
+        assertThat(interceptor.preHandle(new MockHttpServletRequest(), response, handler("export"))).isTrue();
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Handlers(), Handlers.class.getMethod(name));
+    }
+
+    static class Handlers {
+        @AdmissionLimit(value = "stream", transfer = true)
+        public void stream() {
+        }
+
+        @AdmissionLimit(value = "export", transfer = true)
+        public void export() {
+        }
+    }
+}
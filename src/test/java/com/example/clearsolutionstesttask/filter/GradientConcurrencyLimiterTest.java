@@ -0,0 +1,43 @@
+package com.example.clearsolutionstesttask.filter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+class GradientConcurrencyLimiterTest {
+    private static final long FAST = 10_000_000L;
+
+    @Test
+    void shouldRefuseOverLimit() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(2, 10);
+
+        assertThat(limiter.tryAcquire()).isEqualTo(1);
+        assertThat(limiter.tryAcquire()).isEqualTo(2);
+        assertThat(limiter.tryAcquire()).isEqualTo(0);
+
+        limiter.release(FAST, 2);
+        assertThat(limiter.tryAcquire()).isPositive();
+    }
+
+    @Test
+    void shouldGrowWhileLatencyIsStable() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(4, 10);
+
+        for (int i = 0; i < 100; i++)
+            limiter.release(FAST, limiter.getLimit());
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void shouldShrinkWhenLatencyClimbs() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(10, 10);
+        for (int i = 0; i < 100; i++)
+            limiter.release(FAST, 10);
+
+        for (int i = 0; i < 20; i++)
+            limiter.release(FAST * 20, limiter.getLimit());
+
+        assertThat(limiter.getLimit()).isLessThan(7);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.clearsolutionstesttask.filter;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Round-trip budgets for tests: around a service call, or on a MockMvc response through SqlAccountingFilter
+public final class SqlBudget {
+
+    private SqlBudget() {
+    }
+
+    public static <T> T assertStatementsAtMost(int maxStatements, Callable<T> action) throws Exception {
+        SqlStatistics statistics = SqlStatistics.start();
+        try {
+            T result = action.call();
+            assertThat(statistics.getStatements())
+                    .as("SQL statements issued")
+                    .isLessThanOrEqualTo(maxStatements);
+            return result;
+        } finally {
+            SqlStatistics.stop();
+        }
+    }
+
+    public static ResultMatcher statementsAtMost(int maxStatements) {
+        return result -> {
+            String statements = result.getResponse().getHeader(SqlAccountingFilter.STATEMENTS_HEADER);
+            assertThat(statements).as(SqlAccountingFilter.STATEMENTS_HEADER + " header").isNotNull();
+            assertThat(Integer.parseInt(statements))
+                    .as("SQL statements issued by " + result.getRequest().getMethod() + " " + result.getRequest().getRequestURI())
+                    .isLessThanOrEqualTo(maxStatements);
+        };
+    }
+}
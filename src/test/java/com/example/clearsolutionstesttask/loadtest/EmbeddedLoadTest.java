@@ -0,0 +1,109 @@
+package com.example.clearsolutionstesttask.loadtest;
+
+import com.example.clearsolutionstesttask.ClearSolutionsTestTaskApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+// Starts an in-process PostgreSQL and the application on a random port, seeds `load.seedUsers` users
+// through the batch endpoint and runs LoadTest against them. Needs nothing but a JDK and Maven.
+// With -Dload.mode=insert it instead inserts `load.insertUsers` users once through the batch endpoint and
+// once through single creates, one request at a time, and prints rows/sec for both.
+public class EmbeddedLoadTest {
+    private static final int SEED_BATCH_SIZE = 5000;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int seedUsers = Integer.getInteger("load.seedUsers", 100_000);
+        String mix = System.getProperty("load.mix", "search:50,get:20,create:10,update:8,patch:8,delete:4");
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(ClearSolutionsTestTaskApplication.class)
+                     .properties(
+                             "server.port=0",
+                             "spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true",
+                             "spring.datasource.username=postgres",
+                             "spring.datasource.password=")
+                     .run(args)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String serverUrl = "http://localhost:" + port;
+
+            long start = System.nanoTime();
+            long[] ids = seed(Operation.usersUrl(serverUrl), seedUsers);
+            System.out.printf("seeded %d users in %.1f s%n", ids.length, (System.nanoTime() - start) / 1e9);
+
+            if ("insert".equals(System.getProperty("load.mode"))) {
+                compareInserts(Operation.usersUrl(serverUrl), Integer.getInteger("load.insertUsers", 20_000));
+                return;
+            }
+
+            LoadTest loadTest = new LoadTest(serverUrl,
+                    Integer.getInteger("load.rate", 200),
+                    Integer.getInteger("load.durationSeconds", 60),
+                    mix,
+                    new UserIdPool(ids));
+            System.out.println(loadTest.run());
+        }
+    }
+
+    private static void compareInserts(String usersUrl, int users) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        int inserted = seed(usersUrl, users).length;
+        printRate("batch", inserted, start);
+
+        HttpClient client = HttpClient.newHttpClient();
+        start = System.nanoTime();
+        inserted = 0;
+        for (int i = 0; i < users; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(usersUrl))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(Operation.userJson()))
+                    .build();
+            if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200)
+                inserted++;
+        }
+        printRate("single", inserted, start);
+    }
+
+    private static void printRate(String mode, int inserted, long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-6s inserted %d users in %.1f s: %.0f rows/s%n", mode, inserted, seconds, inserted / seconds);
+    }
+
+    private static long[] seed(String usersUrl, int seedUsers) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        ObjectMapper objectMapper = new ObjectMapper();
+        long[] ids = new long[seedUsers];
+        int seeded = 0;
+        for (int offset = 0; offset < seedUsers; offset += SEED_BATCH_SIZE) {
+            StringJoiner batch = new StringJoiner(",", "[", "]");
+            for (int i = offset; i < Math.min(seedUsers, offset + SEED_BATCH_SIZE); i++)
+                batch.add(Operation.userJson());
+
+            HttpRequest request = HttpRequest.newBuilder(URI.create(usersUrl + "/batch"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(batch.toString()))
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200)
+                throw new IllegalStateException("Seeding failed with " + response.statusCode() + ": " + response.body());
+
+            // rows rejected as duplicates come back with a null id and are just skipped
+            for (JsonNode result : objectMapper.readTree(response.body())) {
+                if (result.hasNonNull("id"))
+                    ids[seeded++] = result.get("id").asLong();
+            }
+        }
+        return Arrays.copyOf(ids, seeded);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.clearsolutionstesttask.loadtest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+class LatencyRecorder {
+    private final Map<Operation, List<Long>> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, int[]> failures = new EnumMap<>(Operation.class);
+
+    synchronized void record(Operation operation, long latencyNanos, int status) {
+        latencies.computeIfAbsent(operation, key -> new ArrayList<>()).add(latencyNanos);
+        if (status < 200 || status >= 300) {
+            int[] counts = failures.computeIfAbsent(operation, key -> new int[2]);
+            counts[status == 503 || status == 429 ? 1 : 0]++;
+        }
+    }
+
+    synchronized String report(long elapsedNanos) {
+        StringBuilder report = new StringBuilder(String.format("%-8s %9s %9s %8s %8s %9s %9s %9s %9s%n",
+                "op", "requests", "req/s", "errors", "shed", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        double seconds = elapsedNanos / 1e9;
+        for (Map.Entry<Operation, List<Long>> entry : latencies.entrySet()) {
+            List<Long> sorted = new ArrayList<>(entry.getValue());
+            Collections.sort(sorted);
+            int[] counts = failures.getOrDefault(entry.getKey(), new int[2]);
+            report.append(String.format("%-8s %9d %9.1f %8d %8d %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey().name().toLowerCase(), sorted.size(), sorted.size() / seconds,
+                    counts[0], counts[1],
+                    millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.90)),
+                    millis(percentile(sorted, 0.99)), millis(sorted.get(sorted.size() - 1))));
+        }
+        return report.toString();
+    }
+
+    private static long percentile(List<Long> sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
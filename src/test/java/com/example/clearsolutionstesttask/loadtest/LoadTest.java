@@ -0,0 +1,85 @@
+package com.example.clearsolutionstesttask.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Open-loop load generator: requests are fired on a fixed schedule and latency is measured from the
+// intended start time, so a slow server shows up as latency instead of as a lower request rate.
+public class LoadTest {
+    private final String usersUrl;
+    private final int rate;
+    private final int durationSeconds;
+    private final Map<Operation, Integer> mix;
+    private final UserIdPool userIds;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    public LoadTest(String serverUrl, int rate, int durationSeconds, String mix, long maxUserId) {
+        this(serverUrl, rate, durationSeconds, mix, UserIdPool.range(maxUserId));
+    }
+
+    LoadTest(String serverUrl, int rate, int durationSeconds, String mix, UserIdPool userIds) {
+        this.usersUrl = Operation.usersUrl(serverUrl);
+        this.rate = rate;
+        this.durationSeconds = durationSeconds;
+        this.mix = Operation.parseMix(mix);
+        this.userIds = userIds;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadTest loadTest = fromSystemProperties(System.getProperty("load.serverUrl", "http://localhost:8080"));
+        System.out.println(loadTest.run());
+    }
+
+    static LoadTest fromSystemProperties(String serverUrl) {
+        return new LoadTest(serverUrl,
+                Integer.getInteger("load.rate", 200),
+                Integer.getInteger("load.durationSeconds", 60),
+                System.getProperty("load.mix", "search:70,get:20,create:10"),
+                Long.getLong("load.maxUserId", 1000L));
+    }
+
+    public String run() throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder();
+        int total = rate * durationSeconds;
+        CountDownLatch completed = new CountDownLatch(total);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long delay = intendedStart - System.nanoTime();
+            if (delay > 0)
+                LockSupport.parkNanos(delay);
+
+            Operation operation = pick(totalWeight);
+            client.sendAsync(operation.request(usersUrl, userIds), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        recorder.record(operation, System.nanoTime() - intendedStart,
+                                error == null ? response.statusCode() : -1);
+                        completed.countDown();
+                    });
+        }
+        completed.await(30, TimeUnit.SECONDS);
+        return recorder.report(System.nanoTime() - start);
+    }
+
+    private Operation pick(int totalWeight) {
+        int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            ticket -= entry.getValue();
+            if (ticket < 0)
+                return entry.getKey();
+        }
+        throw new IllegalStateException("Empty operation mix");
+    }
+}
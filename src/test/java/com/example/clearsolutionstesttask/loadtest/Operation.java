@@ -0,0 +1,96 @@
+package com.example.clearsolutionstesttask.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+enum Operation {
+    SEARCH {
+        HttpRequest request(String baseUrl, UserIdPool userIds) {
+            LocalDate from = randomBirthDate();
+            return get(baseUrl + "/searchByBirthDateRange?from=" + from + "&to=" + from.plusYears(1) + "&limit=100");
+        }
+    },
+    GET {
+        HttpRequest request(String baseUrl, UserIdPool userIds) {
+            return get(baseUrl + "/" + userIds.random());
+        }
+    },
+    CREATE {
+        HttpRequest request(String baseUrl, UserIdPool userIds) {
+            return HttpRequest.newBuilder(URI.create(baseUrl))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(userJson()))
+                    .build();
+        }
+    },
+    UPDATE {
+        HttpRequest request(String baseUrl, UserIdPool userIds) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/" + userIds.random()))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(userJson()))
+                    .build();
+        }
+    },
+    PATCH {
+        HttpRequest request(String baseUrl, UserIdPool userIds) {
+            String contacts = "{\"phone\":\"" + randomPhone() + "\",\"address\":\"Kyiv\"}";
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/" + userIds.random()))
+                    .header("Content-Type", "application/json")
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString(contacts))
+                    .build();
+        }
+    },
+    DELETE {
+        HttpRequest request(String baseUrl, UserIdPool userIds) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/" + userIds.nextToDelete())).DELETE().build();
+        }
+    };
+
+    private static final String USERS_PATH = "/api/v1/testTask/users";
+
+    abstract HttpRequest request(String baseUrl, UserIdPool userIds);
+
+    static String usersUrl(String serverUrl) {
+        return serverUrl + USERS_PATH;
+    }
+
+    // "search:70,get:20,create:10"
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    static String userJson() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String suffix = UUID.randomUUID().toString().substring(0, 12);
+        return "{\"email\":\"load-" + suffix + "@example.com\"," +
+                "\"firstName\":\"Load\",\"lastName\":\"User" + random.nextInt(1000) + "\"," +
+                "\"birthDate\":\"" + randomBirthDate() + "\"," +
+                "\"phone\":\"" + randomPhone() + "\"," +
+                "\"address\":\"Lviv\"}";
+    }
+
+    // adult birth dates skewed towards 25-45 year olds, like the production table
+    static LocalDate randomBirthDate() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double age = Math.max(18.5, Math.min(95, 35 + random.nextGaussian() * 12));
+        return LocalDate.now().minusDays((long) (age * 365.25));
+    }
+
+    static String randomPhone() {
+        return "+380" + ThreadLocalRandom.current().nextLong(100_000_000_000L, 1_000_000_000_000L);
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.clearsolutionstesttask.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+// Deletes take ids from the end of the pool and reads/updates only pick from the part that is left,
+// so a mixed run does not turn into a stream of 404s as users disappear.
+class UserIdPool {
+    private final long[] ids;
+    private final AtomicInteger deleted = new AtomicInteger();
+
+    UserIdPool(long[] ids) {
+        this.ids = ids;
+    }
+
+    static UserIdPool range(long maxUserId) {
+        return new UserIdPool(LongStream.rangeClosed(1, maxUserId).toArray());
+    }
+
+    long random() {
+        int live = Math.max(1, ids.length - deleted.get());
+        return ids[ThreadLocalRandom.current().nextInt(live)];
+    }
+
+    long nextToDelete() {
+        int index = ids.length - 1 - deleted.getAndIncrement();
+        return ids[Math.max(0, index)];
+    }
+}
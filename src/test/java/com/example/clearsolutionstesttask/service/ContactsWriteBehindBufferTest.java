@@ -0,0 +1,110 @@
+package com.example.clearsolutionstesttask.service;
+
+import com.example.clearsolutionstesttask.dto.ContactsDto;
+import com.example.clearsolutionstesttask.dto.UserDto;
+import com.example.clearsolutionstesttask.repository.UserContactsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ContactsWriteBehindBufferTest {
+    @Mock
+    private UserContactsRepository userContactsRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private UserCache userCache;
+    private ContactsWriteBehindBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new ContactsWriteBehindBuffer(userContactsRepository, transactionManager, userCache, true, 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldCoalesceUpdatesOfOneUserIntoOneRow() {
+        buffer.offer(1L, new ContactsDto("+380000000001", null));
+        buffer.offer(1L, new ContactsDto("+380000000002", "Kyiv"));
+        when(userContactsRepository.updateContacts(anyMap())).thenReturn(new int[]{1});
+
+        buffer.flush();
+
+        ArgumentCaptor<Map<Long, ContactsDto>> batch = ArgumentCaptor.forClass(Map.class);
+        verify(userContactsRepository).updateContacts(batch.capture());
+        assertThat(batch.getValue()).containsExactly(Map.entry(1L, new ContactsDto("+380000000002", "Kyiv")));
+        verify(userCache).evict(1L);
+        assertThat(buffer.isPending(1L)).isFalse();
+    }
+
+    @Test
+    void shouldWritePendingContactsThroughBeforeConditionalWrite() {
+        ContactsDto contacts = new ContactsDto("+380000000001", "Kyiv");
+        buffer.offer(1L, contacts);
+        when(userContactsRepository.updateContacts(anyMap())).thenReturn(new int[]{1});
+
+        buffer.writeThrough(1L);
+
+        verify(userContactsRepository).updateContacts(Map.of(1L, contacts));
+        verify(userCache).evict(1L);
+        assertThat(buffer.isPending(1L)).isFalse();
+    }
+
+    @Test
+    void shouldOverlayPendingContacts() {
+        buffer.offer(1L, new ContactsDto("+380000000001", "Kyiv"));
+        UserDto user = UserDto.builder().id(1L).phone("+380999999999").version(3L).build();
+
+        assertThat(buffer.overlay(1L, () -> user).getAddress()).isEqualTo("Kyiv");
+        assertThat(user.getPhone()).isEqualTo("+380000000001");
+        // the version the pending write will leave in the database
+        assertThat(user.getVersion()).isEqualTo(4L);
+    }
+
+    @Test
+    void shouldRefuseNewUsersWhenFull() {
+        assertThat(buffer.offer(1L, new ContactsDto("+380000000001", null))).isTrue();
+        assertThat(buffer.offer(2L, new ContactsDto("+380000000002", null))).isTrue();
+        assertThat(buffer.offer(3L, new ContactsDto("+380000000003", null))).isFalse();
+        assertThat(buffer.offer(2L, new ContactsDto("+380000000004", null))).isTrue();
+    }
+
+    @Test
+    void shouldRetryRowsOneByOneWhenBatchConflicts() {
+        buffer.offer(1L, new ContactsDto("+380000000001", null));
+        buffer.offer(2L, new ContactsDto("+380000000002", null));
+        when(userContactsRepository.updateContacts(anyMap()))
+                .thenThrow(new DataIntegrityViolationException("duplicate"))
+                .thenThrow(new DataIntegrityViolationException("duplicate"))
+                .thenReturn(new int[]{1});
+
+        buffer.flush();
+
+        verify(userContactsRepository, times(3)).updateContacts(anyMap());
+        assertThat(buffer.isPending(1L)).isFalse();
+        assertThat(buffer.isPending(2L)).isFalse();
+    }
+
+    @Test
+    void shouldWriteSynchronouslyAfterClose() {
+        buffer.close();
+        assertThat(buffer.offer(1L, new ContactsDto("+380000000001", null))).isFalse();
+        verify(userContactsRepository, never()).updateContacts(any());
+    }
+}
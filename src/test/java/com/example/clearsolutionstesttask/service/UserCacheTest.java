@@ -0,0 +1,43 @@
+package com.example.clearsolutionstesttask.service;
+
+import com.example.clearsolutionstesttask.dto.UserDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserCacheTest {
+    private Cache cache;
+    private UserCache userCache;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(UserCache.USERS_CACHE);
+        cache = cacheManager.getCache(UserCache.USERS_CACHE);
+        userCache = new UserCache(cacheManager);
+    }
+
+    @Test
+    void shouldKeepLoadedUser() {
+        UserDto user = UserDto.builder().id(1L).build();
+
+        assertThat(userCache.get(1L, () -> user)).isSameAs(user);
+        assertThat(userCache.get(1L, () -> null)).isSameAs(user);
+    }
+
+    @Test
+    void shouldNotKeepUserLoadedWhileItWasEvicted() {
+        UserDto stale = UserDto.builder().id(1L).phone("+380000000001").build();
+
+        UserDto loaded = userCache.get(1L, () -> {
+            // a write commits and evicts between this reader's load and its put
+            userCache.evict(1L);
+            return stale;
+        });
+
+        assertThat(loaded).isSameAs(stale);
+        assertThat(cache.get(1L)).isNull();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.clearsolutionstesttask.service;
+
+import com.example.clearsolutionstesttask.dto.UserChangeDto;
+import com.example.clearsolutionstesttask.exception.BadRequestException;
+import com.example.clearsolutionstesttask.exception.TooManyRequestsException;
+import com.example.clearsolutionstesttask.repository.UserChangeRepository;
+import com.example.clearsolutionstesttask.repository.UserChangeRepository.Change;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserChangeServiceImplTest {
+    @Mock
+    private UserChangeRepository userChangeRepository;
+    @InjectMocks
+    private UserChangeServiceImpl userChangeService;
+
+    @BeforeEach
+    void setUp() {
+        userChangeService.setBatchSize(2);
+        userChangeService.setBufferSize(2);
+        userChangeService.setMaxSubscribers(1);
+    }
+
+    private static Change change(long tx, long id) {
+        return new Change(tx, id, new UserChangeDto(tx + "_" + id, UserChangeDto.Type.UPDATED, id, null));
+    }
+
+    private static List<String> offsets(List<UserChangeDto> changes) {
+        return changes.stream().map(UserChangeDto::getOffset).toList();
+    }
+
+    @Test
+    void shouldCatchUpFromTableThenReceiveFromPoller() throws InterruptedException {
+        when(userChangeRepository.findAfter(0, 0, 2)).thenReturn(List.of(change(10, 1)));
+        when(userChangeRepository.findLast()).thenReturn(Optional.of(change(10, 1)));
+        when(userChangeRepository.findAfter(10, 1, 2)).thenReturn(List.of(change(11, 2)));
+
+        UserChangeService.Subscription subscription = userChangeService.subscribe("0_0");
+        assertThat(offsets(subscription.next(0))).containsExactly("10_1");
+
+        userChangeService.poll();
+        assertThat(offsets(subscription.next(0))).containsExactly("11_2");
+    }
+
+    @Test
+    void shouldFallBackToTableWhenBufferOverflows() throws InterruptedException {
+        when(userChangeRepository.findLast()).thenReturn(Optional.of(change(10, 1)));
+        when(userChangeRepository.findAfter(10, 1, 2)).thenReturn(List.of());
+        UserChangeService.Subscription subscription = userChangeService.subscribe(null);
+        subscription.next(0);
+
+        when(userChangeRepository.findAfter(10, 1, 2)).thenReturn(List.of(change(11, 2), change(11, 3)));
+        when(userChangeRepository.findAfter(11, 3, 2)).thenReturn(List.of(change(12, 4), change(12, 5)));
+        when(userChangeRepository.findAfter(12, 5, 2)).thenReturn(List.of());
+        userChangeService.poll();
+
+        // the first batch filled the buffer, the second one did not fit
+        assertThat(offsets(subscription.next(0))).containsExactly("11_2", "11_3");
+        assertThat(offsets(subscription.next(0))).containsExactly("12_4", "12_5");
+    }
+
+    @Test
+    void shouldRejectInvalidCursor() {
+        assertThatThrownBy(() -> userChangeService.subscribe("yesterday"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Invalid `After` cursor");
+    }
+
+    @Test
+    void shouldRejectSubscribersOverLimit() {
+        userChangeService.subscribe("0_0");
+        assertThatThrownBy(() -> userChangeService.subscribe("0_0"))
+                .isInstanceOf(TooManyRequestsException.class);
+        verify(userChangeRepository, never()).findLast();
+    }
+}
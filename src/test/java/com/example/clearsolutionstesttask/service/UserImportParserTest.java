@@ -0,0 +1,55 @@
+package com.example.clearsolutionstesttask.service;
+
+import com.example.clearsolutionstesttask.dto.UserDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserImportParserTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void shouldParseCsvInHeaderOrder() throws Exception {
+        UserImportParser parser = new UserImportParser(ImportFormat.CSV, objectMapper);
+        parser.readHeader("first_name,last_name,email,birth_date,phone,address");
+
+        UserDto user = parser.parse("Andrii,Snovyda,andrii@gmail.com,2005-11-06,,\"Lviv, \"\"Center\"\"\"");
+        assertThat(user.getFirstName()).isEqualTo("Andrii");
+        assertThat(user.getBirthDate()).isEqualTo(LocalDate.of(2005, 11, 6));
+        assertThat(user.getPhone()).isNull();
+        assertThat(user.getAddress()).isEqualTo("Lviv, \"Center\"");
+    }
+
+    @Test
+    void shouldThrowWhenCsvHeaderMissesColumn() {
+        UserImportParser parser = new UserImportParser(ImportFormat.CSV, objectMapper);
+        assertThatThrownBy(() -> parser.readHeader("email,firstName,lastName"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldParseNdjson() throws Exception {
+        UserImportParser parser = new UserImportParser(ImportFormat.NDJSON, objectMapper);
+
+        UserDto user = parser.parse("{\"email\":\"andrii@gmail.com\",\"firstName\":\"Andrii\"," +
+                "\"lastName\":\"Snovyda\",\"birthDate\":\"2005-11-06\"}");
+        assertThat(user.getEmail()).isEqualTo("andrii@gmail.com");
+        assertThat(user.getBirthDate()).isEqualTo(LocalDate.of(2005, 11, 6));
+    }
+
+    @Test
+    void shouldQuoteValuesForCopy() {
+        StringBuilder csv = new StringBuilder();
+        UserImportParser.appendCsv(csv, "a\"b");
+        csv.append(',');
+        UserImportParser.appendCsv(csv, null);
+        assertThat(csv.toString()).isEqualTo("\"a\"\"b\",");
+        assertThat(UserImportParser.splitCsv(csv.toString())).isEqualTo(List.of("a\"b", ""));
+    }
+}
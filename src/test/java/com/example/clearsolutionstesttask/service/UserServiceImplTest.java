@@ -1,26 +1,45 @@
 package com.example.clearsolutionstesttask.service;
 
 import com.example.clearsolutionstesttask.dto.ContactsDto;
+import com.example.clearsolutionstesttask.dto.UserBatchResultDto;
+import com.example.clearsolutionstesttask.dto.UserBulkDeleteDto;
+import com.example.clearsolutionstesttask.dto.UserBulkDeleteResultDto;
 import com.example.clearsolutionstesttask.dto.UserDto;
 import com.example.clearsolutionstesttask.dto.UserIdDto;
+import com.example.clearsolutionstesttask.dto.UserPageDto;
 import com.example.clearsolutionstesttask.entity.User;
 import com.example.clearsolutionstesttask.exception.BadRequestException;
+import com.example.clearsolutionstesttask.exception.NotFoundException;
+import com.example.clearsolutionstesttask.exception.PreconditionFailedException;
+import com.example.clearsolutionstesttask.repository.UserBulkDeleteRepository;
+import com.example.clearsolutionstesttask.repository.UserChangeRepository;
 import com.example.clearsolutionstesttask.repository.UserRepository;
+import com.example.clearsolutionstesttask.repository.UserTextSearchRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -29,13 +48,29 @@ class UserServiceImplTest {
     private static UserDto userDto;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private UserTextSearchRepository userTextSearchRepository;
+    @Mock
+    private ContactsWriteBehindBuffer contactsWriteBehindBuffer;
+    @Mock
+    private UserBulkDeleteRepository userBulkDeleteRepository;
+    @Mock
+    private UserCache userCache;
+    @Mock
+    private UserChangeRepository userChangeRepository;
+    @Spy
+    private UserValidator userValidator = new UserValidator();
     @InjectMocks
     private UserServiceImpl userService;
     private Integer minAge = 18;
 
     @BeforeEach
     void setUp() {
-        userService.setMinAge(minAge);
+        userValidator.setMinAge(minAge);
+        userService.setMaxSearchRows(2);
+        userService.setDeleteChunkSize(2);
         userDto = UserDto.builder()
                 .firstName("Andrii")
                 .lastName("Snovyda")
@@ -45,9 +80,14 @@ class UserServiceImplTest {
                 .build();
     }
 
+    private static DataIntegrityViolationException uniqueViolation(String index) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new SQLException("ERROR: duplicate key value violates unique constraint \"" + index + "\""));
+    }
+
     @Test
     void shouldThrowWhenEmailExists() {
-        when(userRepository.existsUserByEmail(userDto.getEmail())).thenReturn(true);
+        when(userRepository.saveAndFlush(any())).thenThrow(uniqueViolation("ux_users_email"));
         assertThatThrownBy(() -> userService.createUser(userDto))
                 .isInstanceOf(BadRequestException.class)
                 .hasMessage("The email is already used");
@@ -55,8 +95,7 @@ class UserServiceImplTest {
 
     @Test
     void shouldThrowWhenPhoneExists() {
-        when(userRepository.existsUserByEmail(userDto.getEmail())).thenReturn(false);
-        when(userRepository.existsUserByPhone(userDto.getPhone())).thenReturn(true);
+        when(userRepository.saveAndFlush(any())).thenThrow(uniqueViolation("ux_users_phone"));
         assertThatThrownBy(() -> userService.createUser(userDto))
                 .isInstanceOf(BadRequestException.class)
                 .hasMessage("The phone is already used");
@@ -80,79 +119,329 @@ class UserServiceImplTest {
 
     @Test
     void shouldCreateUser() {
-        when(userRepository.existsUserByEmail(userDto.getEmail())).thenReturn(false);
-        when(userRepository.existsUserByPhone(userDto.getPhone())).thenReturn(false);
-        when(userRepository.save(any())).thenReturn(User.builder().id(1L).build());
+        when(userRepository.saveAndFlush(any())).thenReturn(User.builder().id(1L).build());
         UserIdDto userIdDto = userService.createUser(userDto);
-        verify(userRepository).save(any());
+        verify(userRepository).saveAndFlush(any());
         assertThat(userIdDto.getId()).isEqualTo(1L);
     }
 
+    @Test
+    void shouldCreateUsersAndReportDuplicatesPerItem() {
+        UserDto duplicate = UserDto.builder()
+                .firstName("Inna")
+                .lastName("Snovyda")
+                .email(userDto.getEmail())
+                .birthDate(LocalDate.of(2000, 1, 1))
+                .build();
+        UserDto tooYoung = UserDto.builder()
+                .firstName("Ivan")
+                .lastName("Snovyda")
+                .email("ivan@gmail.com")
+                .birthDate(LocalDate.of(2020, 1, 1))
+                .build();
+
+        List<UserBatchResultDto> results = userService.createUsers(List.of(userDto, duplicate, tooYoung));
+
+        verify(userRepository).saveAll(any());
+        assertThat(results.size()).isEqualTo(3);
+        assertThat(results.get(0).getError()).isNull();
+        assertThat(results.get(1).getError()).isEqualTo("The email is already used");
+        assertThat(results.get(2).getError()).isEqualTo("You must be over 18 years old");
+    }
+
+    @Test
+    void shouldReportEmailsAlreadyStored() {
+        UserRepository.UniqueKeys stored = new UserRepository.UniqueKeys() {
+            public String getEmail() {
+                return userDto.getEmail();
+            }
+
+            public String getPhone() {
+                return null;
+            }
+        };
+        when(userRepository.findUniqueKeys(any(), any())).thenReturn(List.of(stored));
+
+        List<UserBatchResultDto> results = userService.createUsers(List.of(userDto));
+
+        assertThat(results.get(0).getId()).isNull();
+        assertThat(results.get(0).getError()).isEqualTo("The email is already used");
+    }
+
+    @Test
+    void shouldReportNullBatchEntryPerItem() {
+        List<UserBatchResultDto> results = userService.createUsers(Arrays.asList(userDto, null));
+
+        assertThat(results.get(0).getError()).isNull();
+        assertThat(results.get(1).getId()).isNull();
+        assertThat(results.get(1).getError()).isEqualTo("User can not be null");
+    }
+
+    @Test
+    void shouldThrowWhenBatchIsEmpty() {
+        assertThatThrownBy(() -> userService.createUsers(List.of()))
+                .isInstanceOf(BadRequestException.class);
+    }
+
     @Test
     void shouldUpdateContactsInfo() {
-        when(userRepository.findById(any())).thenReturn(Optional.of(new User()));
-        userService.updateContactsInfo(any(), new ContactsDto("+381111111111", null));
-        ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
-        verify(userRepository).save(captor.capture());
-        User user = captor.getValue();
-        assertThat(user.getPhone()).isEqualTo("+381111111111");
+        when(userRepository.updateContacts(1L, "+381111111111", null)).thenReturn(1);
+        userService.updateContactsInfo(1L, new ContactsDto("+381111111111", null), null);
+        verify(userRepository).updateContacts(1L, "+381111111111", null);
+        verify(userCache).evict(1L);
+    }
+
+    @Test
+    void shouldDeferContactsInfoToWriteBehindBuffer() {
+        ContactsDto contacts = new ContactsDto("+381111111111", null);
+        when(contactsWriteBehindBuffer.offer(1L, contacts)).thenReturn(true);
+        userService.updateContactsInfo(1L, contacts, null);
+        verify(userRepository, never()).updateContacts(any(), any(), any());
+        verify(userCache).evict(1L);
+    }
 
+    @Test
+    void shouldUpdateContactsInfoWhenVersionMatches() {
+        when(userRepository.updateContactsIfVersion(1L, "+381111111111", null, 3L)).thenReturn(1);
+        userService.updateContactsInfo(1L, new ContactsDto("+381111111111", null), 3L);
+        verify(userRepository).updateContactsIfVersion(1L, "+381111111111", null, 3L);
+    }
+
+    @Test
+    void shouldThrowWhenVersionIsStale() {
+        when(userRepository.updateContactsIfVersion(1L, "+381111111111", null, 3L)).thenReturn(0);
+        when(userRepository.existsById(1L)).thenReturn(true);
+        assertThatThrownBy(() -> userService.updateContactsInfo(1L, new ContactsDto("+381111111111", null), 3L))
+                .isInstanceOf(PreconditionFailedException.class);
+    }
+
+    @Test
+    void shouldThrowWhenPatchedUserNotFound() {
+        when(userRepository.updateContacts(1L, "+381111111111", null)).thenReturn(0);
+        assertThatThrownBy(() -> userService.updateContactsInfo(1L, new ContactsDto("+381111111111", null), null))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("User not found");
     }
 
     @Test
     void shouldDeleteUser() {
-        User user = User.builder().id(1L).build();
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        userService.deleteUser(user.getId());
-        verify(userRepository).delete(user);
+        when(userRepository.deleteUserById(1L)).thenReturn(1);
+        userService.deleteUser(1L);
+        verify(userRepository).deleteUserById(1L);
+        verify(userCache).evict(1L);
+    }
+
+    @Test
+    void shouldThrowWhenDeletedUserNotFound() {
+        when(userRepository.deleteUserById(1L)).thenReturn(0);
+        assertThatThrownBy(() -> userService.deleteUser(1L))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("User not found");
+    }
+
+    @Test
+    void shouldDeleteUsersByIdsInChunks() {
+        when(userBulkDeleteRepository.deleteByIds(eq(List.of(1L, 2L)), anyLong())).thenReturn(List.of(1L, 2L));
+        when(userBulkDeleteRepository.deleteByIds(eq(List.of(3L)), anyLong())).thenReturn(List.of());
+
+        UserBulkDeleteResultDto result = userService.deleteUsers(
+                UserBulkDeleteDto.builder().ids(List.of(1L, 2L, 2L, 3L)).build());
+
+        assertThat(result).isEqualTo(new UserBulkDeleteResultDto(2L, 1L, false));
+        verify(userCache).evict(1L);
+        verify(userCache).evict(2L);
+    }
+
+    @Test
+    void shouldDeleteUsersInRangeUntilChunkIsShort() {
+        LocalDate from = LocalDate.of(1990, 1, 1);
+        LocalDate to = LocalDate.of(1999, 12, 31);
+        when(userBulkDeleteRepository.deleteInRange(eq(from), eq(to), eq(2), anyLong()))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+
+        UserBulkDeleteResultDto result = userService.deleteUsers(
+                UserBulkDeleteDto.builder().from(from).to(to).build());
+
+        assertThat(result).isEqualTo(new UserBulkDeleteResultDto(3L, 0L, false));
+    }
+
+    @Test
+    void shouldCountUsersOnDryRun() {
+        when(userBulkDeleteRepository.countByIds(any())).thenReturn(1L);
+
+        UserBulkDeleteResultDto result = userService.deleteUsers(
+                UserBulkDeleteDto.builder().ids(List.of(1L, 2L)).dryRun(true).build());
+
+        assertThat(result).isEqualTo(new UserBulkDeleteResultDto(1L, 1L, true));
+        verify(userBulkDeleteRepository, never()).deleteByIds(any(), anyLong());
+    }
+
+    @Test
+    void shouldThrowWhenBothIdsAndRangeGiven() {
+        UserBulkDeleteDto request = UserBulkDeleteDto.builder()
+                .ids(List.of(1L))
+                .from(LocalDate.of(1990, 1, 1))
+                .to(LocalDate.of(1999, 12, 31))
+                .build();
+        assertThatThrownBy(() -> userService.deleteUsers(request))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Either `ids` or `from` and `to` must be given");
+    }
+
+    @Test
+    void shouldFindUser() {
+        when(userRepository.findDtoById(1L)).thenReturn(Optional.of(userDto));
+        when(userCache.get(eq(1L), any())).thenAnswer(invocation -> invocation.<Supplier<UserDto>>getArgument(1).get());
+        assertThat(userService.findUser(1L).getEmail()).isEqualTo(userDto.getEmail());
+    }
+
+    @Test
+    void shouldBypassCacheWhileContactsArePending() {
+        when(contactsWriteBehindBuffer.isPending(1L)).thenReturn(true);
+        when(userRepository.findDtoById(1L)).thenReturn(Optional.of(userDto));
+        when(contactsWriteBehindBuffer.overlay(eq(1L), any())).thenAnswer(invocation -> invocation.<Supplier<UserDto>>getArgument(1).get());
+        assertThat(userService.findUser(1L).getEmail()).isEqualTo(userDto.getEmail());
+        verify(userCache, never()).get(any(), any());
+    }
+
+    @Test
+    void shouldThrowWhenUserNotFound() {
+        when(userRepository.findDtoById(1L)).thenReturn(Optional.empty());
+        when(userCache.get(eq(1L), any())).thenAnswer(invocation -> invocation.<Supplier<UserDto>>getArgument(1).get());
+        assertThatThrownBy(() -> userService.findUser(1L))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("User not found");
     }
 
     @Test
     void shouldSearchByBirthDateRange() {
         LocalDate from = LocalDate.of(2004, 11, 6);
         LocalDate to = LocalDate.of(2006, 11, 6);
-        when(userRepository.findAllByBirthDateBetween(from, to))
-                .thenReturn(List.of(User.builder().email(userDto.getEmail()).build()));
+        when(userRepository.findAllByBirthDateBetween(eq(from), eq(to), any()))
+                .thenReturn(List.of(UserDto.builder().email(userDto.getEmail()).build()));
+        when(userChangeRepository.findVersion()).thenReturn("7_1-");
+
+        UserPageDto page = userService.searchByBirthDateRange(from, to);
+        verify(userRepository).findAllByBirthDateBetween(from, to, PageRequest.ofSize(3));
+        assertThat(page.getUsers().size()).isEqualTo(1);
+        assertThat(page.getUsers().get(0).getEmail()).isEqualTo(userDto.getEmail());
+        assertThat(page.getVersion()).isEqualTo("7_1-");
+    }
+
+    @Test
+    void shouldThrowWhenSearchExceedsRowBudget() {
+        LocalDate from = LocalDate.of(2004, 11, 6);
+        LocalDate to = LocalDate.of(2006, 11, 6);
+        when(userRepository.findAllByBirthDateBetween(eq(from), eq(to), any()))
+                .thenReturn(List.of(new UserDto(), new UserDto(), new UserDto()));
+
+        assertThatThrownBy(() -> userService.searchByBirthDateRange(from, to))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("More than 2 users in range, use `limit` to page through them");
+    }
+
+    @Test
+    void shouldReturnNextCursorWhenPageIsFull() {
+        LocalDate from = LocalDate.of(2004, 11, 6);
+        LocalDate to = LocalDate.of(2006, 11, 6);
+        UserDto first = UserDto.builder().id(1L).birthDate(LocalDate.of(2005, 1, 1)).build();
+        UserDto second = UserDto.builder().id(2L).birthDate(LocalDate.of(2005, 2, 1)).build();
+        when(userRepository.findPageByBirthDateBetween(eq(from), eq(to), eq(from), eq(0L), any()))
+                .thenReturn(List.of(first, second));
 
-        List<UserDto> users = userService.searchByBirthDateRange(from, to);
-        verify(userRepository).findAllByBirthDateBetween(from, to);
-        assertThat(users.size()).isEqualTo(1);
-        assertThat(users.get(0).getEmail()).isEqualTo(userDto.getEmail());
+        UserPageDto page = userService.searchByBirthDateRange(from, to, 1, null);
+        assertThat(page.getUsers().size()).isEqualTo(1);
+        assertThat(page.getNextCursor()).isEqualTo("2005-01-01_1");
+    }
+
+    @Test
+    void shouldSearchAfterCursor() {
+        LocalDate from = LocalDate.of(2004, 11, 6);
+        LocalDate to = LocalDate.of(2006, 11, 6);
+        when(userRepository.findPageByBirthDateBetween(
+                eq(from), eq(to), eq(LocalDate.of(2005, 1, 1)), eq(1L), any()))
+                .thenReturn(List.of(UserDto.builder().id(2L).birthDate(LocalDate.of(2005, 2, 1)).build()));
+
+        UserPageDto page = userService.searchByBirthDateRange(from, to, 1, "2005-01-01_1");
+        assertThat(page.getUsers().size()).isEqualTo(1);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void shouldReturnScoreCursorForTextSearch() {
+        UserDto first = UserDto.builder().id(5L).build();
+        UserDto second = UserDto.builder().id(9L).build();
+        when(userTextSearchRepository.search(eq("andr"), eq(2f), eq(0L), eq(2), anyLong()))
+                .thenReturn(List.of(new UserTextSearchRepository.Match(first, 0.75f),
+                        new UserTextSearchRepository.Match(second, 0.5f)));
+
+        UserPageDto page = userService.searchByText(" andr ", 1, null);
+        assertThat(page.getUsers().size()).isEqualTo(1);
+        assertThat(page.getNextCursor()).isEqualTo("0.75_5");
+    }
+
+    @Test
+    void shouldThrowWhenTextQueryIsTooShort() {
+        assertThatThrownBy(() -> userService.searchByText("an", null, null))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("`Q` must be between 3 and 70 characters");
+    }
+
+    @Test
+    void shouldThrowWhenCursorIsInvalid() {
+        LocalDate from = LocalDate.of(2004, 11, 6);
+        LocalDate to = LocalDate.of(2006, 11, 6);
+        assertThatThrownBy(() -> userService.searchByBirthDateRange(from, to, 10, "2005-01-01"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Invalid `After` cursor");
     }
 
     @Test
     void shouldThrowWhenEmailExistsWhileUpdate() {
-        User user = User.builder().id(1L).phone("+380971674530").email("inna@gmail.com").build();
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(userRepository.existsUserByEmail(userDto.getEmail())).thenReturn(true);
+        when(userRepository.updateUser(any())).thenThrow(uniqueViolation("ux_users_email"));
 
-        assertThatThrownBy(() -> userService.updateUser(user.getId(), userDto))
+        assertThatThrownBy(() -> userService.updateUser(1L, userDto, null))
                 .isInstanceOf(BadRequestException.class)
                 .hasMessage("The email is already used");
 
     }
     @Test
     void shouldThrowWhenPhoneExistsWhileUpdate() {
-        User user = User.builder().id(1L).phone("+380971674530").email("inna@gmail.com").build();
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(userRepository.existsUserByEmail(userDto.getEmail())).thenReturn(false);
-        when(userRepository.existsUserByPhone(userDto.getPhone())).thenReturn(true);
+        when(userRepository.updateUser(any())).thenThrow(uniqueViolation("ux_users_phone"));
 
-        assertThatThrownBy(() -> userService.updateUser(user.getId(), userDto))
+        assertThatThrownBy(() -> userService.updateUser(1L, userDto, null))
                 .isInstanceOf(BadRequestException.class)
                 .hasMessage("The phone is already used");
 
     }
     @Test
+    void shouldThrowWhenUpdatedUserNotFound() {
+        when(userRepository.updateUser(any())).thenReturn(0);
+
+        assertThatThrownBy(() -> userService.updateUser(1L, userDto, null))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("User not found");
+
+    }
+    @Test
+    void shouldUpdateUserWhenVersionMatches() {
+        when(userRepository.updateUserIfVersion(any())).thenReturn(1);
+        userService.updateUser(1L, userDto, 2L);
+
+        ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
+        verify(userRepository).updateUserIfVersion(captor.capture());
+        assertThat(captor.getValue().getVersion()).isEqualTo(2L);
+    }
+    @Test
     void shouldUpdateUser() {
-        when(userRepository.findById(any())).thenReturn(Optional.of(new User()));
-        when(userRepository.existsUserByEmail(userDto.getEmail())).thenReturn(false);
-        when(userRepository.existsUserByPhone(userDto.getPhone())).thenReturn(false);
-        userService.updateUser(any(), userDto);
+        when(userRepository.updateUser(any())).thenReturn(1);
+        userService.updateUser(1L, userDto, null);
 
         ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
-        verify(userRepository).save(captor.capture());
+        verify(userRepository).updateUser(captor.capture());
         User captorUser = captor.getValue();
+        assertThat(captorUser.getId()).isEqualTo(1L);
         assertThat(captorUser.getEmail()).isEqualTo(userDto.getEmail());
 
     }
@@ -0,0 +1,63 @@
+package com.example.clearsolutionstesttask.service;
+
+import com.example.clearsolutionstesttask.dto.UserStatsDto;
+import com.example.clearsolutionstesttask.repository.UserStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserStatsServiceImplTest {
+    @Mock
+    private UserStatsRepository userStatsRepository;
+    @InjectMocks
+    private UserStatsServiceImpl userStatsService;
+
+    @BeforeEach
+    void setUp() {
+        userStatsService.setAgeBuckets(18, 10);
+    }
+
+    @Test
+    void shouldAggregateMonthsIntoYears() {
+        Map<YearMonth, Long> months = new LinkedHashMap<>();
+        months.put(YearMonth.of(1990, 1), 3L);
+        months.put(YearMonth.of(1990, 7), 2L);
+        months.put(YearMonth.of(2001, 3), 4L);
+        when(userStatsRepository.countByMonth()).thenReturn(months);
+        when(userStatsRepository.countByAge(any())).thenReturn(Map.of());
+
+        UserStatsDto stats = userStatsService.getStats();
+
+        assertThat(stats.getTotal()).isEqualTo(9L);
+        assertThat(stats.getByYear()).containsExactly(Map.entry(1990, 5L), Map.entry(2001, 4L));
+        assertThat(stats.getByMonth()).containsEntry("1990-07", 2L);
+    }
+
+    @Test
+    void shouldBucketAgesFromMinAge() {
+        Map<Integer, Long> ages = new LinkedHashMap<>();
+        ages.put(17, 1L);
+        ages.put(18, 2L);
+        ages.put(27, 3L);
+        ages.put(28, 4L);
+        when(userStatsRepository.countByMonth()).thenReturn(Map.of());
+        when(userStatsRepository.countByAge(any())).thenReturn(ages);
+
+        UserStatsDto stats = userStatsService.getStats();
+
+        assertThat(stats.getByAge()).containsExactly(
+                Map.entry("under 18", 1L), Map.entry("18-27", 5L), Map.entry("28-37", 4L));
+    }
+}